@@ -0,0 +1,112 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.core.BarCanvas;
+import com.philjay.valuebar.core.MeasuredTextCache;
+import com.philjay.valuebar.core.TextMeasurer;
+
+/**
+ * TextMeasurer that caches the measurements of a FakeTextMeasurer per text
+ * style, like the text caches of the Android renderer, and counts how many
+ * texts had to be measured because they were not cached.
+ * 
+ * @author Philipp Jahoda
+ */
+public class CachedTextMeasurer implements TextMeasurer {
+
+    private final TextMeasurer mMeasurer;
+
+    private final Cache mValueTextCache;
+    private final Cache mMinMaxTextCache;
+
+    /** the number of texts measured since the last takeMeasurements() */
+    private long mMeasurements;
+
+    /**
+     * @param measurer the measurer of the texts that are not cached
+     * @param capacity the number of different texts cached per style
+     */
+    public CachedTextMeasurer(TextMeasurer measurer, int capacity) {
+        mMeasurer = measurer;
+        mValueTextCache = new Cache(BarCanvas.STYLE_VALUE_TEXT, capacity);
+        mMinMaxTextCache = new Cache(BarCanvas.STYLE_MIN_MAX_TEXT, capacity);
+    }
+
+    /**
+     * Grows both caches to hold at least the given number of different texts.
+     * 
+     * @param capacity
+     */
+    public void ensureCapacity(int capacity) {
+        mValueTextCache.ensureCapacity(capacity);
+        mMinMaxTextCache.ensureCapacity(capacity);
+    }
+
+    /**
+     * Returns the number of texts measured since the last call and resets it.
+     * 
+     * @return
+     */
+    public long takeMeasurements() {
+        long measurements = mMeasurements;
+        mMeasurements = 0;
+        return measurements;
+    }
+
+    @Override
+    public float getTextWidth(String text, int style) {
+        return getCache(style).getWidth(text);
+    }
+
+    @Override
+    public float getTextWidth(char[] text, int start, int count, int style) {
+        return getCache(style).getWidth(text, start, count);
+    }
+
+    @Override
+    public float getTextHeight(String text, int style) {
+        return getCache(style).getHeight(text);
+    }
+
+    @Override
+    public float getTextHeight(char[] text, int start, int count, int style) {
+        return getCache(style).getHeight(text, start, count);
+    }
+
+    private Cache getCache(int style) {
+        return style == BarCanvas.STYLE_VALUE_TEXT ? mValueTextCache : mMinMaxTextCache;
+    }
+
+    /** caches the measurements of a single style */
+    private class Cache extends MeasuredTextCache {
+
+        private final int mStyle;
+
+        Cache(int style, int capacity) {
+            super(capacity);
+            mStyle = style;
+        }
+
+        @Override
+        protected float measureWidth(String text) {
+            mMeasurements++;
+            return mMeasurer.getTextWidth(text, mStyle);
+        }
+
+        @Override
+        protected float measureHeight(String text) {
+            return mMeasurer.getTextHeight(text, mStyle);
+        }
+
+        @Override
+        protected float measureWidth(char[] text, int start, int count) {
+            mMeasurements++;
+            return mMeasurer.getTextWidth(text, start, count, mStyle);
+        }
+
+        @Override
+        protected float measureHeight(char[] text, int start, int count) {
+            return mMeasurer.getTextHeight(text, start, count, mStyle);
+        }
+    }
+}
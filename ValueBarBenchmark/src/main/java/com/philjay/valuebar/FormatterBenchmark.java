@@ -0,0 +1,86 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.colors.GreenToRedFormatter;
+import com.philjay.valuebar.colors.RedToGreenFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the value-text and color formatters, called once per frame
+ * for every drawn bar. The values change on every call, like during a drag or
+ * an animation.
+ * 
+ * @author Philipp Jahoda
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatterBenchmark {
+
+    private static final float MIN = 0f;
+    private static final float MAX = 1000f;
+
+    private ValueSequence mValues;
+
+    private FixedDecimalFormatter mDefaultFormatter;
+    private FixedDecimalFormatter mGroupingFormatter;
+
+    private BarColorFormatter mGreenToRed;
+    private BarColorFormatter mRedToGreen;
+
+    private char[] mBuffer = new char[ValueTextCharFormatter.BUFFER_LENGTH];
+
+    @Setup
+    public void setup() {
+
+        mValues = new ValueSequence(MIN, MAX);
+
+        // the formatter used by the bars if no other is set
+        mDefaultFormatter = new FixedDecimalFormatter(2);
+        mGroupingFormatter = new FixedDecimalFormatter(0, true, " $");
+
+        mGreenToRed = new GreenToRedFormatter();
+        mRedToGreen = new RedToGreenFormatter();
+    }
+
+    @Benchmark
+    public String defaultValueText() {
+        return mDefaultFormatter.getValueText(mValues.next(), MAX, MIN);
+    }
+
+    @Benchmark
+    public int defaultValueChars() {
+        return mDefaultFormatter.getValueText(mValues.next(), MAX, MIN, mBuffer);
+    }
+
+    @Benchmark
+    public int groupingValueChars() {
+        return mGroupingFormatter.getValueText(mValues.next(), MAX, MIN, mBuffer);
+    }
+
+    @Benchmark
+    public int greenToRed() {
+        return mGreenToRed.getColor(mValues.next(), MAX, MIN);
+    }
+
+    @Benchmark
+    public int redToGreen() {
+        return mRedToGreen.getColor(mValues.next(), MAX, MIN);
+    }
+}
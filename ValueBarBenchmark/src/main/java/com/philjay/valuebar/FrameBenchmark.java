@@ -0,0 +1,193 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.colors.GreenToRedFormatter;
+import com.philjay.valuebar.core.BarPainter;
+import com.philjay.valuebar.scale.LinearScaleMapper;
+import com.philjay.valuebar.scale.ScaleMapper;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a whole frame of a single bar, as drawn by ValueBar.onDraw(...)
+ * during an animation: Maps the new value to the bar length, formats, measures
+ * and lays out the value-text and labels, picks the color and issues the draw
+ * calls to a fake canvas. groupFrame() draws all bars of a ValueBarGroup after
+ * one of them changed, with the text measurements cached like the group does.
+ * 
+ * @author Philipp Jahoda
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameBenchmark {
+
+    private static final float MIN = 0f;
+    private static final float MAX = 1000f;
+    private static final float WIDTH = 1080f;
+    private static final float HEIGHT = 160f;
+
+    /** true to use the gradient color formatter instead of a single color */
+    @Param({
+            "false", "true"
+    })
+    public boolean gradient;
+
+    private BarPainter mPainter;
+    private ScaleMapper mMapper;
+
+    private FakeBarCanvas mCanvas;
+    private FakeTextMeasurer mMeasurer;
+
+    private ValueSequence mValues;
+
+    private String mMinText;
+    private String mMaxText;
+
+    @Setup
+    public void setup() {
+
+        mPainter = new BarPainter();
+
+        if (gradient)
+            mPainter.setColorFormatter(new GreenToRedFormatter());
+
+        mMapper = new LinearScaleMapper();
+
+        // roughly the metrics of 18dp text on an xxhdpi screen
+        mCanvas = new FakeBarCanvas();
+        mMeasurer = new FakeTextMeasurer(30f, 40f);
+
+        mValues = new ValueSequence(MIN, MAX);
+
+        // formatted once per range, like ValueBar does
+        mMinText = mPainter.getValueTextFormatter().getMinVal(MIN);
+        mMaxText = mPainter.getValueTextFormatter().getMaxVal(MAX);
+    }
+
+    @Benchmark
+    public FakeBarCanvas frame() {
+
+        float value = mValues.next();
+
+        mMapper.prepare(MIN, MAX, WIDTH);
+        float barRight = mMapper.getPosition(value);
+
+        mPainter.draw(mCanvas, mMeasurer, WIDTH, HEIGHT, barRight, value, MIN, MAX, mMinText,
+                mMaxText);
+
+        return mCanvas;
+    }
+
+    @Benchmark
+    public FakeBarCanvas groupFrame(Group group, Measurements measurements) {
+
+        // one bar changes, the group draws all of them again
+        group.mValues[group.mChanged] = mValues.next();
+        group.mChanged = (group.mChanged + 1) % group.bars;
+
+        for (int i = 0; i < group.bars; i++) {
+
+            float value = group.mValues[i];
+            float max = group.mMaxVals[i];
+
+            mMapper.prepare(MIN, max, WIDTH);
+            float barRight = mMapper.getPosition(value);
+
+            mPainter.draw(mCanvas, group.mMeasurer, WIDTH, HEIGHT, barRight, value, MIN, max,
+                    group.mMinTexts[i], group.mMaxTexts[i]);
+        }
+
+        measurements.measurements += group.mMeasurer.takeMeasurements();
+
+        return mCanvas;
+    }
+
+    /** the bars of a ValueBarGroup, each with its own range */
+    @State(Scope.Thread)
+    public static class Group {
+
+        /** the default capacity of the text caches of ValueBarGroup */
+        private static final int METRICS_CAPACITY = 64;
+
+        /** the number of bars, more than the default capacity of the caches */
+        @Param({
+                "16", "128"
+        })
+        public int bars;
+
+        /**
+         * true to grow the text caches with the number of bars, like
+         * ValueBarGroup.setData(...) does, false to keep the default capacity
+         */
+        @Param({
+                "true", "false"
+        })
+        public boolean sizedCache;
+
+        private float[] mValues;
+        private float[] mMaxVals;
+
+        private String[] mMinTexts;
+        private String[] mMaxTexts;
+
+        private CachedTextMeasurer mMeasurer;
+
+        /** the index of the bar that changes next */
+        private int mChanged;
+
+        @Setup
+        public void setup() {
+
+            BarPainter painter = new BarPainter();
+            ValueSequence values = new ValueSequence(MIN, MAX);
+
+            mValues = new float[bars];
+            mMaxVals = new float[bars];
+            mMinTexts = new String[bars];
+            mMaxTexts = new String[bars];
+
+            for (int i = 0; i < bars; i++) {
+                mMaxVals[i] = MAX + i * 10f;
+                mValues[i] = values.next();
+                mMinTexts[i] = painter.getValueTextFormatter().getMinVal(MIN);
+                mMaxTexts[i] = painter.getValueTextFormatter().getMaxVal(mMaxVals[i]);
+            }
+
+            mMeasurer = new CachedTextMeasurer(new FakeTextMeasurer(30f, 40f), METRICS_CAPACITY);
+
+            if (sizedCache)
+                mMeasurer.ensureCapacity(2 * bars);
+        }
+    }
+
+    /** the number of texts measured because they were not cached */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Measurements {
+
+        public long measurements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            measurements = 0;
+        }
+    }
+}
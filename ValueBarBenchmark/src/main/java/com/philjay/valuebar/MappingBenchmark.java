@@ -0,0 +1,103 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.scale.LinearScaleMapper;
+import com.philjay.valuebar.scale.LogScaleMapper;
+import com.philjay.valuebar.scale.ScaleMapper;
+import com.philjay.valuebar.scale.SqrtScaleMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of mapping values to pixel positions (drawing) and pixel
+ * positions back to snapped values (touch), the same way ValueBar does in
+ * getBarLength(...) and updateValue(...).
+ * 
+ * @author Philipp Jahoda
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+
+    private static final float MIN = 1f;
+    private static final float MAX = 1000f;
+    private static final float WIDTH = 1080f;
+
+    /** linear, log or sqrt */
+    @Param({
+            "linear", "log", "sqrt"
+    })
+    public String scale;
+
+    /** the interval to snap to, 0 for continuous values */
+    @Param({
+            "0", "1", "0.25"
+    })
+    public float interval;
+
+    private ScaleMapper mMapper;
+    private StepModel mSteps;
+
+    private ValueSequence mValues;
+    private ValueSequence mPositions;
+
+    @Setup
+    public void setup() {
+
+        if ("log".equals(scale))
+            mMapper = new LogScaleMapper();
+        else if ("sqrt".equals(scale))
+            mMapper = new SqrtScaleMapper();
+        else
+            mMapper = new LinearScaleMapper();
+
+        mSteps = new StepModel();
+        mSteps.setRange(MIN, MAX);
+        mSteps.setInterval(interval);
+
+        mValues = new ValueSequence(MIN, MAX);
+
+        // slightly outside the bar as well, touches are not clamped
+        mPositions = new ValueSequence(-20f, WIDTH + 20f);
+    }
+
+    @Benchmark
+    public float valueToPosition() {
+
+        mMapper.prepare(MIN, MAX, WIDTH);
+        return mMapper.getPosition(mValues.next());
+    }
+
+    @Benchmark
+    public float positionToValue() {
+
+        float x = mPositions.next();
+
+        if (mMapper.isLinear())
+            return mSteps.getValueForPosition(x, WIDTH);
+
+        mMapper.prepare(MIN, MAX, WIDTH);
+        return mSteps.snapValue(mMapper.getValue(x));
+    }
+
+    @Benchmark
+    public int positionToStepIndex() {
+        return mSteps.getIndexForPosition(mPositions.next(), WIDTH);
+    }
+}
@@ -0,0 +1,44 @@
+
+package com.philjay.valuebar;
+
+import java.util.Random;
+
+/**
+ * Endless sequence of precomputed random values within a range. Returning a
+ * different value on every call keeps the JIT from folding constants and the
+ * value caches from short-cutting the work, without allocating.
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueSequence {
+
+    /** the number of precomputed values, a power of two */
+    private static final int SIZE = 1024;
+
+    private float[] mValues = new float[SIZE];
+
+    private int mIndex = 0;
+
+    /**
+     * @param min
+     * @param max
+     */
+    public ValueSequence(float min, float max) {
+
+        // fixed seed, every run sees the same values
+        Random r = new Random(42);
+
+        for (int i = 0; i < SIZE; i++)
+            mValues[i] = min + (max - min) * r.nextFloat();
+    }
+
+    /**
+     * Returns the next value of the sequence.
+     * 
+     * @return
+     */
+    public float next() {
+        mIndex = (mIndex + 1) & (SIZE - 1);
+        return mValues[mIndex];
+    }
+}
@@ -0,0 +1,243 @@
+
+package com.philjay.valuebar;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Fast formatter that formats values with a fixed number of decimals, an
+ * optional grouping separator and an optional suffix (e.g. "1,234.50 $").
+ * Implements both ValueTextFormatter and ValueTextCharFormatter, formatting
+ * into a char array does not allocate. The output is the same as the one of a
+ * DecimalFormat with the equivalent pattern (e.g. "###,###,##0.00"): values
+ * are rounded half-even and negative values that round to zero keep their
+ * sign. Separators are taken from the default locale. Instances are not
+ * thread-safe.
+ * 
+ * @author Philipp Jahoda
+ */
+public class FixedDecimalFormatter implements ValueTextFormatter, ValueTextCharFormatter {
+
+    /** the maximum number of decimals supported */
+    public static final int MAX_DECIMALS = 9;
+
+    /** powers of ten for all supported numbers of decimals */
+    private static final long[] POWERS_OF_TEN = new long[] {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L,
+            1000000000L
+    };
+
+    /**
+     * absolute scaled values from this limit on are formatted by a
+     * DecimalFormat, below it every digit of a value is exact
+     */
+    private static final double MAX_SCALED = 1e15;
+
+    /** the maximum number of characters of a number, without suffix */
+    private static final int MAX_NUMBER_LENGTH = 1 + 19 + 6 + 1 + MAX_DECIMALS;
+
+    private int mDecimals;
+    private boolean mGrouping;
+    private char[] mSuffix;
+
+    private char mDecimalSeparator;
+    private char mGroupingSeparator;
+    private char mMinusSign;
+
+    /** formats NaN, infinity and huge values, created when first needed */
+    private DecimalFormat mFallbackFormat;
+
+    /** buffer used when formatting into a String */
+    private char[] mBuffer = new char[BUFFER_LENGTH];
+
+    /**
+     * Creates a formatter with the given number of decimals that groups
+     * thousands.
+     * 
+     * @param decimals
+     */
+    public FixedDecimalFormatter(int decimals) {
+        this(decimals, true, null);
+    }
+
+    /**
+     * Creates a new formatter.
+     * 
+     * @param decimals the number of decimals (0 - MAX_DECIMALS)
+     * @param grouping true to separate groups of thousands
+     * @param suffix text appended to every value (e.g. " $"), may be null
+     */
+    public FixedDecimalFormatter(int decimals, boolean grouping, String suffix) {
+
+        if (decimals < 0 || decimals > MAX_DECIMALS)
+            throw new IllegalArgumentException("The number of decimals must be between 0 and "
+                    + MAX_DECIMALS + ".");
+
+        if (suffix == null)
+            suffix = "";
+
+        if (MAX_NUMBER_LENGTH + suffix.length() > BUFFER_LENGTH)
+            throw new IllegalArgumentException("The suffix must not be longer than "
+                    + (BUFFER_LENGTH - MAX_NUMBER_LENGTH) + " characters.");
+
+        mDecimals = decimals;
+        mGrouping = grouping;
+        mSuffix = suffix.toCharArray();
+
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        mDecimalSeparator = symbols.getDecimalSeparator();
+        mGroupingSeparator = symbols.getGroupingSeparator();
+        mMinusSign = symbols.getMinusSign();
+    }
+
+    /**
+     * Sets the characters used as decimal and grouping separator, by default
+     * the ones of the default locale are used.
+     * 
+     * @param decimalSeparator
+     * @param groupingSeparator
+     */
+    public void setSeparators(char decimalSeparator, char groupingSeparator) {
+        mDecimalSeparator = decimalSeparator;
+        mGroupingSeparator = groupingSeparator;
+        mFallbackFormat = null;
+    }
+
+    @Override
+    public int getValueText(float value, float maxVal, float minVal, char[] buffer) {
+        return format(value, buffer);
+    }
+
+    @Override
+    public String getValueText(float value, float maxVal, float minVal) {
+        return new String(mBuffer, 0, format(value, mBuffer));
+    }
+
+    @Override
+    public String getMinVal(float minVal) {
+        return new String(mBuffer, 0, format(minVal, mBuffer));
+    }
+
+    @Override
+    public String getMaxVal(float maxVal) {
+        return new String(mBuffer, 0, format(maxVal, mBuffer));
+    }
+
+    /**
+     * Writes the formatted value into the given buffer, starting at index 0.
+     * 
+     * @param value
+     * @param buffer buffer of at least BUFFER_LENGTH characters
+     * @return the number of characters written
+     */
+    public int format(float value, char[] buffer) {
+
+        long pow = POWERS_OF_TEN[mDecimals];
+        double scaled = Math.abs((double) value) * pow;
+
+        if (!(scaled < MAX_SCALED))
+            return appendSuffix(buffer, formatFallback(value, buffer));
+
+        // a float times a power of ten up to 10^9 is exact as a double, so
+        // rint(...) rounds half-even based on the exact value
+        long rounded = (long) Math.rint(scaled);
+        long integer = rounded / pow;
+        long fraction = rounded % pow;
+
+        // like DecimalFormat, "-0.00" for negative values that round to zero
+        boolean negative = Float.floatToRawIntBits(value) < 0;
+
+        int digits = 1;
+        for (long i = integer; i >= 10; i /= 10)
+            digits++;
+
+        int groups = mGrouping ? (digits - 1) / 3 : 0;
+        int length = (negative ? 1 : 0) + digits + groups + (mDecimals > 0 ? mDecimals + 1 : 0);
+
+        // fill the buffer from the end
+        int pos = length;
+
+        for (int i = 0; i < mDecimals; i++) {
+            buffer[--pos] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+
+        if (mDecimals > 0)
+            buffer[--pos] = mDecimalSeparator;
+
+        for (int i = 0; i < digits; i++) {
+
+            if (i > 0 && i % 3 == 0 && mGrouping)
+                buffer[--pos] = mGroupingSeparator;
+
+            buffer[--pos] = (char) ('0' + integer % 10);
+            integer /= 10;
+        }
+
+        if (negative)
+            buffer[--pos] = mMinusSign;
+
+        return appendSuffix(buffer, length);
+    }
+
+    /**
+     * Formats NaN, infinity and huge values with a DecimalFormat of the same
+     * pattern. Values whose text does not fit into the buffer next to the
+     * suffix are written in scientific notation.
+     * 
+     * @param value
+     * @param buffer
+     * @return the number of characters written
+     */
+    private int formatFallback(float value, char[] buffer) {
+
+        if (mFallbackFormat == null) {
+
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+            symbols.setDecimalSeparator(mDecimalSeparator);
+            symbols.setGroupingSeparator(mGroupingSeparator);
+            symbols.setMinusSign(mMinusSign);
+
+            StringBuilder pattern = new StringBuilder(mGrouping ? "#,##0" : "0");
+
+            if (mDecimals > 0)
+                pattern.append('.');
+
+            for (int i = 0; i < mDecimals; i++)
+                pattern.append('0');
+
+            mFallbackFormat = new DecimalFormat(pattern.toString(), symbols);
+        }
+
+        String text = mFallbackFormat.format(value);
+
+        if (text.length() + mSuffix.length > BUFFER_LENGTH)
+            text = Float.toString(value);
+
+        return copy(text, buffer);
+    }
+
+    /**
+     * Appends the suffix to the text in the buffer.
+     * 
+     * @param buffer
+     * @param length the length of the text in the buffer
+     * @return the length of the text including the suffix
+     */
+    private int appendSuffix(char[] buffer, int length) {
+        System.arraycopy(mSuffix, 0, buffer, length, mSuffix.length);
+        return length + mSuffix.length;
+    }
+
+    /**
+     * Copies the given text into the buffer.
+     * 
+     * @param text
+     * @param buffer
+     * @return the number of characters copied
+     */
+    private static int copy(String text, char[] buffer) {
+        text.getChars(0, text.length(), buffer, 0);
+        return text.length();
+    }
+}
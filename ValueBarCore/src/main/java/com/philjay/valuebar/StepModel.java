@@ -0,0 +1,323 @@
+
+package com.philjay.valuebar;
+
+import java.util.Arrays;
+
+/**
+ * Describes the values that can be chosen on a bar as integer step indices.
+ * The steps are either uniform (value = min + index * interval) or taken from
+ * a table of arbitrary, ascending values. Snapping a touch position to a step
+ * is exact, for uniform steps it only needs the precomputed pixels per step.
+ * 
+ * @author Philipp Jahoda
+ */
+class StepModel {
+
+    /** tolerance for range / interval ratios that are almost integers */
+    private static final double EPSILON = 1e-4;
+
+    private float mMin = 0f;
+    private float mMax = 100f;
+
+    /**
+     * the interval of uniform steps as the decimal number it was specified
+     * as, continuous values if <= 0
+     */
+    private double mInterval = 1.0;
+
+    /** the values of non-uniform steps in ascending order, null if uniform */
+    private float[] mSteps;
+
+    /** the index of the last step */
+    private int mLastIndex;
+
+    /** the width the pixels per step were computed for */
+    private float mWidth = -1f;
+
+    /** the width of a uniform step in pixels */
+    private float mPixelsPerStep;
+
+    public StepModel() {
+        update();
+    }
+
+    /**
+     * Sets the range of the bar.
+     * 
+     * @param min
+     * @param max
+     */
+    public void setRange(float min, float max) {
+        mMin = min;
+        mMax = max;
+        update();
+    }
+
+    /**
+     * Sets the interval of uniform steps, <= 0 for continuous values. Has no
+     * effect while a step table is set.
+     * 
+     * @param interval
+     */
+    public void setInterval(float interval) {
+        mInterval = toDecimal(interval);
+        update();
+    }
+
+    /**
+     * Sets a table of non-uniform steps, null to use uniform steps again. The
+     * table is copied and sorted, the current table is kept if it holds the
+     * same values in the same order.
+     * 
+     * @param steps
+     */
+    public void setSteps(float[] steps) {
+
+        if (steps != null && steps.length > 0 ? Arrays.equals(steps, mSteps) : mSteps == null)
+            return;
+
+        if (steps == null || steps.length == 0) {
+            mSteps = null;
+        } else {
+            mSteps = steps.clone();
+            Arrays.sort(mSteps);
+        }
+
+        update();
+    }
+
+    /**
+     * Returns the table of non-uniform steps, null if the steps are uniform.
+     * 
+     * @return
+     */
+    public float[] getSteps() {
+        return mSteps;
+    }
+
+    /**
+     * Returns true if values are snapped to steps, false if they are
+     * continuous.
+     * 
+     * @return
+     */
+    public boolean isStepped() {
+        return mSteps != null || mInterval > 0.0;
+    }
+
+    /**
+     * Returns the number of steps, 0 if the values are continuous.
+     * 
+     * @return
+     */
+    public int getStepCount() {
+        return isStepped() ? mLastIndex + 1 : 0;
+    }
+
+    /**
+     * Returns the value of the step with the given index.
+     * 
+     * @param index
+     * @return
+     */
+    public float getValue(int index) {
+
+        if (mSteps != null)
+            return mSteps[index];
+
+        return (float) (mMin + index * mInterval);
+    }
+
+    /**
+     * Returns the index of the step closest to the given value.
+     * 
+     * @param value
+     * @return
+     */
+    public int getIndexForValue(float value) {
+
+        if (mSteps != null)
+            return findClosest(value);
+
+        return clampIndex(Math.round((value - (double) mMin) / mInterval));
+    }
+
+    /**
+     * Returns the index of the step closest to the given horizontal position
+     * on a bar of the given width.
+     * 
+     * @param x
+     * @param width
+     * @return
+     */
+    public int getIndexForPosition(float x, float width) {
+
+        if (mSteps != null)
+            return findClosest(mMin + (mMax - mMin) * (x / width));
+
+        if (width != mWidth) {
+            mWidth = width;
+            mPixelsPerStep = (float) (width * mInterval / (mMax - mMin));
+        }
+
+        return clampIndex(Math.round(x / mPixelsPerStep));
+    }
+
+    /**
+     * Returns the value for a horizontal position on a bar of the given width,
+     * snapped to the closest step if the values are stepped.
+     * 
+     * @param x
+     * @param width
+     * @return
+     */
+    public float getValueForPosition(float x, float width) {
+
+        if (isStepped())
+            return getValue(getIndexForPosition(x, width));
+
+        if (x <= 0)
+            return mMin;
+        if (x >= width)
+            return mMax;
+
+        return mMin + (mMax - mMin) * (x / width);
+    }
+
+    /**
+     * Returns the value of the step closest to the given value, the value
+     * itself if the values are continuous.
+     * 
+     * @param value
+     * @return
+     */
+    public float snapValue(float value) {
+
+        if (isStepped())
+            return getValue(getIndexForValue(value));
+
+        if (value < mMin)
+            return mMin;
+        if (value > mMax)
+            return mMax;
+        return value;
+    }
+
+    /**
+     * Returns the value for a horizontal position on a linear bar, snapped to
+     * the given interval without creating a StepModel.
+     * 
+     * @param x
+     * @param width the width of the whole bar
+     * @param min
+     * @param max
+     * @param interval the interval to snap to as returned by
+     *            toDecimal(...), no snapping if <= 0
+     * @return
+     */
+    public static float getValueForPosition(float x, float width, float min, float max,
+            double interval) {
+
+        float newVal = 0f;
+
+        if (x <= 0)
+            newVal = min;
+        else if (x > width)
+            newVal = max;
+        else {
+            float factor = x / width;
+
+            newVal = (max - min) * factor + min;
+        }
+
+        return snap(newVal, min, max, interval);
+    }
+
+    /**
+     * Snaps the given value to the closest uniform step of the given range
+     * without creating a StepModel.
+     * 
+     * @param value
+     * @param min
+     * @param max
+     * @param interval the interval of the steps as returned by
+     *            toDecimal(...), no snapping if <= 0
+     * @return
+     */
+    public static float snap(float value, float min, float max, double interval) {
+
+        if (interval <= 0.0)
+            return value;
+
+        long last = max > min ? (long) Math.floor((max - (double) min) / interval + EPSILON) : 0;
+        long index = Math.round((value - (double) min) / interval);
+
+        if (index < 0)
+            index = 0;
+        else if (index > last)
+            index = last;
+
+        return (float) (min + index * interval);
+    }
+
+    /**
+     * Returns the decimal number the given float was most likely specified
+     * as, e.g. 0.1 instead of 0.100000001490116 for 0.1f. Multiples of the
+     * result are then rounded to the expected floats.
+     * 
+     * @param f
+     * @return
+     */
+    public static double toDecimal(float f) {
+        return Double.parseDouble(Float.toString(f));
+    }
+
+    /**
+     * Recomputes the index of the last step.
+     */
+    private void update() {
+
+        mWidth = -1f;
+
+        if (mSteps != null)
+            mLastIndex = mSteps.length - 1;
+        else if (mInterval > 0.0 && mMax > mMin)
+            mLastIndex = (int) Math.floor(((double) mMax - mMin) / mInterval + EPSILON);
+        else
+            mLastIndex = 0;
+    }
+
+    private int clampIndex(long index) {
+
+        if (index < 0)
+            return 0;
+        if (index > mLastIndex)
+            return mLastIndex;
+        return (int) index;
+    }
+
+    /**
+     * Returns the index of the table step closest to the given value by binary
+     * search.
+     * 
+     * @param value
+     * @return
+     */
+    private int findClosest(float value) {
+
+        int index = Arrays.binarySearch(mSteps, value);
+
+        if (index >= 0)
+            return index;
+
+        // the index of the first step greater than the value
+        int upper = -index - 1;
+
+        if (upper == 0)
+            return 0;
+        if (upper == mSteps.length)
+            return mSteps.length - 1;
+
+        return value - mSteps[upper - 1] <= mSteps[upper] - value ? upper - 1 : upper;
+    }
+}
@@ -0,0 +1,64 @@
+
+package com.philjay.valuebar;
+
+/**
+ * Immutable description of what a ValueBar displays: range, value and
+ * interval. Snapshots can be created on any thread and handed to a ValueBar
+ * via ValueBar.publish(...), the bar then displays all of them consistently
+ * upon its next draw.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class ValueBarSnapshot {
+
+    private final float mMinVal;
+    private final float mMaxVal;
+    private final float mValue;
+    private final float mInterval;
+
+    /**
+     * @param min the minimum value the bar can display
+     * @param max the maximum value the bar can display, not smaller than min
+     * @param value the value the bar displays
+     * @param interval the interval in which values can be chosen, <= 0 for
+     *            no interval
+     */
+    public ValueBarSnapshot(float min, float max, float value, float interval) {
+
+        if (!(max >= min))
+            throw new IllegalArgumentException("The maximum (" + max
+                    + ") must not be smaller than the minimum (" + min + ").");
+
+        mMinVal = min;
+        mMaxVal = max;
+        mValue = value;
+        mInterval = interval;
+    }
+
+    /**
+     * Returns a snapshot with the same range and interval, but the given
+     * value.
+     * 
+     * @param value
+     * @return
+     */
+    public ValueBarSnapshot withValue(float value) {
+        return new ValueBarSnapshot(mMinVal, mMaxVal, value, mInterval);
+    }
+
+    public float getMin() {
+        return mMinVal;
+    }
+
+    public float getMax() {
+        return mMaxVal;
+    }
+
+    public float getValue() {
+        return mValue;
+    }
+
+    public float getInterval() {
+        return mInterval;
+    }
+}
@@ -0,0 +1,264 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.core.BarPainter;
+import com.philjay.valuebar.scale.ScaleMapper;
+
+import java.util.Arrays;
+
+/**
+ * Holds everything a ValueBar displays (range, value, interval or step table,
+ * colors or gradient fill, formatters, scale mapper and drawing flags), so
+ * that a ValueBar can be bound to a different item in one pass via
+ * ValueBar.bind(...), e.g. when the ValueBar is recycled in a scrolling list.
+ * Properties not set on the state are reset to their defaults when binding,
+ * nothing of the previously bound item is kept. States are meant to be
+ * created once per item and reused, binding a state does not allocate.
+ * 
+ * <pre>
+ * ValueBarState state = new ValueBarState()
+ *         .setMinMax(0f, 1000f)
+ *         .setValue(800f)
+ *         .setColorFormatter(new RedToGreenFormatter());
+ * bar.bind(state);
+ * </pre>
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueBarState {
+
+    private float mMinVal = 0f;
+    private float mMaxVal = 100f;
+    private float mValue = 75f;
+    private float mInterval = 1f;
+
+    /** the values that can be chosen in ascending order, null for the interval */
+    private float[] mSteps;
+
+    /** the color of the bar, used if no color formatter is set */
+    private int mColor = BarPainter.DEFAULT_COLOR;
+
+    /** the colors of the gradient fill, null to use color or color formatter */
+    private int[] mGradientFill;
+
+    private BarColorFormatter mColorFormatter;
+    private ValueTextFormatter mValueTextFormatter;
+
+    /** maps values to pixel positions, null for the default linear mapping */
+    private ScaleMapper mScaleMapper;
+
+    private boolean mDrawBorder = true;
+    private boolean mDrawValueText = true;
+    private boolean mDrawMinMaxText = true;
+    private boolean mTouchEnabled = true;
+
+    /**
+     * Creates a state with the same defaults as a newly created ValueBar.
+     */
+    public ValueBarState() {
+    }
+
+    /**
+     * Sets the minimum and maximum value the bar can display.
+     * 
+     * @param min
+     * @param max
+     * @return this state
+     */
+    public ValueBarState setMinMax(float min, float max) {
+        mMinVal = min;
+        mMaxVal = max;
+        return this;
+    }
+
+    public float getMin() {
+        return mMinVal;
+    }
+
+    public float getMax() {
+        return mMaxVal;
+    }
+
+    /**
+     * Sets the value the bar displays.
+     * 
+     * @param value
+     * @return this state
+     */
+    public ValueBarState setValue(float value) {
+        mValue = value;
+        return this;
+    }
+
+    public float getValue() {
+        return mValue;
+    }
+
+    /**
+     * Sets the interval in which the values can be chosen and displayed. If
+     * interval <= 0, there is no interval.
+     * 
+     * @param interval
+     * @return this state
+     */
+    public ValueBarState setInterval(float interval) {
+        mInterval = interval;
+        return this;
+    }
+
+    public float getInterval() {
+        return mInterval;
+    }
+
+    /**
+     * Sets a table of values that can be chosen instead of a uniform
+     * interval, see ValueBar.setSteps(...). The table is copied and sorted.
+     * Provide null to use the interval.
+     * 
+     * @param steps
+     * @return this state
+     */
+    public ValueBarState setSteps(float[] steps) {
+
+        if (steps == null || steps.length == 0) {
+            mSteps = null;
+        } else {
+            mSteps = steps.clone();
+            Arrays.sort(mSteps);
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the table of values that can be chosen in ascending order, null
+     * if the interval is used.
+     * 
+     * @return
+     */
+    public float[] getSteps() {
+        return mSteps;
+    }
+
+    /**
+     * Sets the color of the bar. Only used if no BarColorFormatter is set.
+     * 
+     * @param color
+     * @return this state
+     */
+    public ValueBarState setColor(int color) {
+        mColor = color;
+        mColorFormatter = null;
+        return this;
+    }
+
+    public int getColor() {
+        return mColor;
+    }
+
+    /**
+     * Sets the BarColorFormatter of the bar, null to use the color set via
+     * setColor(...).
+     * 
+     * @param formatter
+     * @return this state
+     */
+    public ValueBarState setColorFormatter(BarColorFormatter formatter) {
+        mColorFormatter = formatter;
+        return this;
+    }
+
+    public BarColorFormatter getColorFormatter() {
+        return mColorFormatter;
+    }
+
+    /**
+     * Fills the bar with a gradient of the given colors instead of the color
+     * or color formatter, see ValueBar.setGradientFill(...). The colors are
+     * copied. Provide null to use the color or color formatter.
+     * 
+     * @param colors at least two colors
+     * @return this state
+     */
+    public ValueBarState setGradientFill(int[] colors) {
+
+        if (colors != null && colors.length < 2)
+            throw new IllegalArgumentException("At least two colors are needed for a gradient.");
+
+        mGradientFill = colors == null ? null : colors.clone();
+        return this;
+    }
+
+    public int[] getGradientFill() {
+        return mGradientFill;
+    }
+
+    /**
+     * Sets the formatter of the value-text, null to use the default
+     * formatter.
+     * 
+     * @param formatter
+     * @return this state
+     */
+    public ValueBarState setValueTextFormatter(ValueTextFormatter formatter) {
+        mValueTextFormatter = formatter;
+        return this;
+    }
+
+    public ValueTextFormatter getValueTextFormatter() {
+        return mValueTextFormatter;
+    }
+
+    /**
+     * Sets the ScaleMapper that maps values to pixel positions, null to use
+     * the default linear mapping.
+     * 
+     * @param mapper
+     * @return this state
+     */
+    public ValueBarState setScaleMapper(ScaleMapper mapper) {
+        mScaleMapper = mapper;
+        return this;
+    }
+
+    public ScaleMapper getScaleMapper() {
+        return mScaleMapper;
+    }
+
+    public ValueBarState setDrawBorder(boolean enabled) {
+        mDrawBorder = enabled;
+        return this;
+    }
+
+    public boolean isDrawBorderEnabled() {
+        return mDrawBorder;
+    }
+
+    public ValueBarState setDrawValueText(boolean enabled) {
+        mDrawValueText = enabled;
+        return this;
+    }
+
+    public boolean isDrawValueTextEnabled() {
+        return mDrawValueText;
+    }
+
+    public ValueBarState setDrawMinMaxText(boolean enabled) {
+        mDrawMinMaxText = enabled;
+        return this;
+    }
+
+    public boolean isDrawMinMaxTextEnabled() {
+        return mDrawMinMaxText;
+    }
+
+    public ValueBarState setTouchEnabled(boolean enabled) {
+        mTouchEnabled = enabled;
+        return this;
+    }
+
+    public boolean isTouchEnabled() {
+        return mTouchEnabled;
+    }
+}
@@ -0,0 +1,29 @@
+
+package com.philjay.valuebar;
+
+/**
+ * Formatter for the value-text that writes the text into a reusable char
+ * array instead of creating a new String. If the ValueTextFormatter set for a
+ * ValueBar also implements this interface, the ValueBar uses this method to
+ * format the value-text on every frame, which avoids allocations during
+ * animations and touch gestures.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ValueTextCharFormatter {
+
+    /** the minimum length of the buffers provided to the formatter */
+    public static final int BUFFER_LENGTH = 64;
+
+    /**
+     * Writes the text that represents the given value into the provided
+     * buffer, starting at index 0.
+     * 
+     * @param value
+     * @param maxVal the maximum value the bar can display
+     * @param minVal the minimum value the bar can display
+     * @param buffer buffer of at least BUFFER_LENGTH characters
+     * @return the number of characters written
+     */
+    public int getValueText(float value, float maxVal, float minVal, char[] buffer);
+}
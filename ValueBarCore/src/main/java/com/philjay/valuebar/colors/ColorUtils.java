@@ -0,0 +1,133 @@
+
+package com.philjay.valuebar.colors;
+
+/**
+ * Color helpers working on packed ARGB ints, equivalent to the corresponding
+ * methods of android.graphics.Color, so that colors can be computed without
+ * the Android framework.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class ColorUtils {
+
+    public static final int RED = 0xFFFF0000;
+    public static final int GREEN = 0xFF00FF00;
+    public static final int WHITE = 0xFFFFFFFF;
+
+    private ColorUtils() {
+    }
+
+    public static int alpha(int color) {
+        return color >>> 24;
+    }
+
+    public static int red(int color) {
+        return (color >> 16) & 0xFF;
+    }
+
+    public static int green(int color) {
+        return (color >> 8) & 0xFF;
+    }
+
+    public static int blue(int color) {
+        return color & 0xFF;
+    }
+
+    public static int rgb(int red, int green, int blue) {
+        return argb(0xFF, red, green, blue);
+    }
+
+    public static int argb(int alpha, int red, int green, int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Converts the given color into its HSV components: hue (0 - 360),
+     * saturation (0 - 1) and value (0 - 1).
+     * 
+     * @param color
+     * @param hsv array of length 3 receiving the components
+     */
+    public static void colorToHSV(int color, float[] hsv) {
+
+        int r = red(color);
+        int g = green(color);
+        int b = blue(color);
+
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int delta = max - min;
+
+        float hue = 0f;
+        float saturation = max == 0 ? 0f : delta / (float) max;
+
+        if (delta != 0) {
+
+            if (r == max)
+                hue = (g - b) / (float) delta;
+            else if (g == max)
+                hue = 2f + (b - r) / (float) delta;
+            else
+                hue = 4f + (r - g) / (float) delta;
+
+            hue *= 60f;
+
+            if (hue < 0f)
+                hue += 360f;
+        }
+
+        hsv[0] = hue;
+        hsv[1] = saturation;
+        hsv[2] = max / 255f;
+    }
+
+    /**
+     * Converts the given HSV components and alpha into a color.
+     * 
+     * @param alpha
+     * @param hsv hue (0 - 360), saturation (0 - 1) and value (0 - 1)
+     * @return
+     */
+    public static int HSVToColor(int alpha, float[] hsv) {
+
+        float saturation = clamp(hsv[1]);
+        float value = clamp(hsv[2]);
+
+        int v = Math.round(value * 255f);
+
+        if (saturation <= 0f)
+            return argb(alpha, v, v, v);
+
+        float hue = hsv[0] < 0f || hsv[0] >= 360f ? 0f : hsv[0] / 60f;
+        int sector = (int) Math.floor(hue);
+        float f = hue - sector;
+
+        int p = Math.round((1f - saturation) * value * 255f);
+        int q = Math.round((1f - saturation * f) * value * 255f);
+        int t = Math.round((1f - saturation * (1f - f)) * value * 255f);
+
+        switch (sector) {
+            case 0:
+                return argb(alpha, v, t, p);
+            case 1:
+                return argb(alpha, q, v, p);
+            case 2:
+                return argb(alpha, p, v, t);
+            case 3:
+                return argb(alpha, p, q, v);
+            case 4:
+                return argb(alpha, t, p, v);
+            default:
+                return argb(alpha, v, p, q);
+        }
+    }
+
+    private static float clamp(float f) {
+
+        if (f < 0f)
+            return 0f;
+        if (f > 1f)
+            return 1f;
+        return f;
+    }
+}
@@ -0,0 +1,299 @@
+
+package com.philjay.valuebar.colors;
+
+/**
+ * BarColorFormatter that colors the bar according to a gradient with an
+ * arbitrary number of color-stops. The gradient is interpolated either in RGB
+ * or in HSV color-space and sampled into a lookup table once when the
+ * formatter is created. Resolving the color for a value is then a simple
+ * index lookup that does not allocate.
+ * 
+ * @author Philipp Jahoda
+ */
+public class GradientColorFormatter implements BarColorFormatter {
+
+    /** interpolate the gradient in RGB color-space */
+    public static final int MODE_RGB = 0;
+
+    /** interpolate the gradient in HSV color-space (hue, saturation, value) */
+    public static final int MODE_HSV = 1;
+
+    /** the default number of entries in the lookup table */
+    public static final int DEFAULT_RESOLUTION = 256;
+
+    /** the colors of the gradient */
+    private int[] mColors;
+
+    /** the relative positions (0 - 1) of the colors, null for even spacing */
+    private float[] mPositions;
+
+    /** the lookup table containing the sampled gradient */
+    private int[] mTable;
+
+    /** the minimum value the current scale was computed for */
+    private float mMinVal = Float.NaN;
+
+    /** the maximum value the current scale was computed for */
+    private float mMaxVal = Float.NaN;
+
+    /** factor for converting a value into an index of the lookup table */
+    private float mScale = 0f;
+
+    /**
+     * Creates a formatter that interpolates the given colors in RGB
+     * color-space, evenly spaced from the minimum to the maximum value.
+     * 
+     * @param colors at least two colors
+     */
+    public GradientColorFormatter(int[] colors) {
+        this(colors, null, MODE_RGB, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * Creates a formatter that interpolates the given colors in the given
+     * color-space, evenly spaced from the minimum to the maximum value.
+     * 
+     * @param colors at least two colors
+     * @param mode MODE_RGB or MODE_HSV
+     */
+    public GradientColorFormatter(int[] colors, int mode) {
+        this(colors, null, mode, DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * Creates a formatter that interpolates the given colors.
+     * 
+     * @param colors at least two colors
+     * @param positions the relative position (0 - 1) of each color in
+     *            ascending order, or null to space the colors evenly
+     * @param mode MODE_RGB or MODE_HSV
+     * @param resolution the number of entries in the lookup table (at least
+     *            2)
+     */
+    public GradientColorFormatter(int[] colors, float[] positions, int mode, int resolution) {
+
+        if (colors == null || colors.length < 2)
+            throw new IllegalArgumentException("At least two colors are needed for a gradient.");
+        if (positions != null && positions.length != colors.length)
+            throw new IllegalArgumentException("The number of positions must match the number of colors.");
+        if (resolution < 2)
+            throw new IllegalArgumentException("The resolution must be at least 2.");
+
+        if (positions != null) {
+            for (int i = 0; i < positions.length; i++) {
+
+                if (!(positions[i] >= 0f && positions[i] <= 1f))
+                    throw new IllegalArgumentException("The positions must be between 0 and 1.");
+                if (i > 0 && positions[i] < positions[i - 1])
+                    throw new IllegalArgumentException("The positions must be in ascending order.");
+            }
+        }
+
+        mColors = colors.clone();
+        mPositions = positions == null ? null : positions.clone();
+        mTable = new int[resolution];
+
+        if (mode == MODE_HSV)
+            fillTableHSV();
+        else
+            fillTableRGB();
+    }
+
+    @Override
+    public int getColor(float value, float maxVal, float minVal) {
+
+        if (minVal != mMinVal || maxVal != mMaxVal)
+            prepareScale(minVal, maxVal);
+
+        int index = (int) ((value - minVal) * mScale + 0.5f);
+
+        if (index < 0)
+            index = 0;
+        else if (index >= mTable.length)
+            index = mTable.length - 1;
+
+        return mTable[index];
+    }
+
+    /**
+     * Returns the colors of the gradient.
+     * 
+     * @return
+     */
+    public int[] getColors() {
+        return mColors.clone();
+    }
+
+    /**
+     * Returns the relative positions of the gradient colors, null if the
+     * colors are spaced evenly.
+     * 
+     * @return
+     */
+    public float[] getPositions() {
+        return mPositions == null ? null : mPositions.clone();
+    }
+
+    /**
+     * Returns the number of entries in the lookup table.
+     * 
+     * @return
+     */
+    public int getResolution() {
+        return mTable.length;
+    }
+
+    /**
+     * Computes the factor for converting values of the given range into
+     * indices of the lookup table.
+     * 
+     * @param minVal
+     * @param maxVal
+     */
+    private void prepareScale(float minVal, float maxVal) {
+
+        float range = maxVal - minVal;
+
+        mScale = range == 0f ? 0f : (mTable.length - 1) / range;
+        mMinVal = minVal;
+        mMaxVal = maxVal;
+    }
+
+    /**
+     * Returns the relative position of the color-stop with the given index.
+     * 
+     * @param stop
+     * @return
+     */
+    private float getPosition(int stop) {
+
+        if (mPositions != null)
+            return mPositions[stop];
+
+        return stop / (float) (mColors.length - 1);
+    }
+
+    /**
+     * Returns the index of the color-stop at which the gradient segment that
+     * contains the given relative position starts.
+     * 
+     * @param fraction
+     * @return
+     */
+    private int getSegment(float fraction) {
+
+        int segment = 0;
+
+        while (segment < mColors.length - 2 && fraction > getPosition(segment + 1))
+            segment++;
+
+        return segment;
+    }
+
+    /**
+     * Returns the relative position inside the given gradient segment.
+     * 
+     * @param segment
+     * @param fraction
+     * @return
+     */
+    private float getSegmentFraction(int segment, float fraction) {
+
+        float start = getPosition(segment);
+        float end = getPosition(segment + 1);
+
+        if (end <= start)
+            return fraction < start ? 0f : 1f;
+
+        float t = (fraction - start) / (end - start);
+
+        if (t < 0f)
+            return 0f;
+        if (t > 1f)
+            return 1f;
+        return t;
+    }
+
+    /**
+     * Samples the gradient into the lookup table, interpolating in RGB
+     * color-space.
+     */
+    private void fillTableRGB() {
+
+        for (int i = 0; i < mTable.length; i++) {
+
+            float fraction = i / (float) (mTable.length - 1);
+            int segment = getSegment(fraction);
+            float t = getSegmentFraction(segment, fraction);
+
+            int from = mColors[segment];
+            int to = mColors[segment + 1];
+
+            mTable[i] = ColorUtils.argb(
+                    interpolate(ColorUtils.alpha(from), ColorUtils.alpha(to), t),
+                    interpolate(ColorUtils.red(from), ColorUtils.red(to), t),
+                    interpolate(ColorUtils.green(from), ColorUtils.green(to), t),
+                    interpolate(ColorUtils.blue(from), ColorUtils.blue(to), t));
+        }
+    }
+
+    /**
+     * Samples the gradient into the lookup table, interpolating in HSV
+     * color-space. The hue is interpolated along the shorter way around the
+     * color-circle.
+     */
+    private void fillTableHSV() {
+
+        float[][] stops = new float[mColors.length][3];
+
+        for (int i = 0; i < mColors.length; i++)
+            ColorUtils.colorToHSV(mColors[i], stops[i]);
+
+        float[] hsv = new float[3];
+
+        for (int i = 0; i < mTable.length; i++) {
+
+            float fraction = i / (float) (mTable.length - 1);
+            int segment = getSegment(fraction);
+            float t = getSegmentFraction(segment, fraction);
+
+            float[] from = stops[segment];
+            float[] to = stops[segment + 1];
+
+            float hueDelta = to[0] - from[0];
+
+            if (hueDelta > 180f)
+                hueDelta -= 360f;
+            else if (hueDelta < -180f)
+                hueDelta += 360f;
+
+            float hue = from[0] + hueDelta * t;
+
+            if (hue < 0f)
+                hue += 360f;
+            else if (hue >= 360f)
+                hue -= 360f;
+
+            hsv[0] = hue;
+            hsv[1] = from[1] + (to[1] - from[1]) * t;
+            hsv[2] = from[2] + (to[2] - from[2]) * t;
+
+            int alpha = interpolate(ColorUtils.alpha(mColors[segment]),
+                    ColorUtils.alpha(mColors[segment + 1]), t);
+
+            mTable[i] = ColorUtils.HSVToColor(alpha, hsv);
+        }
+    }
+
+    /**
+     * Linearly interpolates between two color components.
+     * 
+     * @param from
+     * @param to
+     * @param t
+     * @return
+     */
+    private static int interpolate(int from, int to, float t) {
+        return Math.round(from + (to - from) * t);
+    }
+}
@@ -0,0 +1,24 @@
+
+package com.philjay.valuebar.colors;
+
+/**
+ * Colors the bar from green (minimum) to red (maximum) by interpolating the hue
+ * of the color. The colors are looked up from a precomputed table.
+ * 
+ * @author Philipp Jahoda
+ */
+public class GreenToRedFormatter extends GradientColorFormatter {
+
+    public GreenToRedFormatter() {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution the number of precomputed colors
+     */
+    public GreenToRedFormatter(int resolution) {
+        super(new int[] {
+                ColorUtils.GREEN, ColorUtils.RED
+        }, null, MODE_HSV, resolution);
+    }
+}
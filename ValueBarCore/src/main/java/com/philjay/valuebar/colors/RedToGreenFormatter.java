@@ -0,0 +1,24 @@
+
+package com.philjay.valuebar.colors;
+
+/**
+ * Colors the bar from red (minimum) to green (maximum) by interpolating the hue
+ * of the color. The colors are looked up from a precomputed table.
+ * 
+ * @author Philipp Jahoda
+ */
+public class RedToGreenFormatter extends GradientColorFormatter {
+
+    public RedToGreenFormatter() {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution the number of precomputed colors
+     */
+    public RedToGreenFormatter(int resolution) {
+        super(new int[] {
+                ColorUtils.RED, ColorUtils.GREEN
+        }, null, MODE_HSV, resolution);
+    }
+}
@@ -0,0 +1,92 @@
+
+package com.philjay.valuebar.core;
+
+/**
+ * The drawing operations needed to draw a bar, implemented by each rendering
+ * backend (e.g. an Android Canvas or a Java2D Graphics). All coordinates are
+ * relative to the top left corner of the bar. The style constants select how
+ * the backend draws a shape or text (paint, color, text-size).
+ * 
+ * @author Philipp Jahoda
+ */
+public interface BarCanvas {
+
+    /** the bar itself, filled */
+    public static final int STYLE_BAR = 0;
+
+    /** the border around the bar, stroked */
+    public static final int STYLE_BORDER = 1;
+
+    /** the overlay below the value-text, filled */
+    public static final int STYLE_OVERLAY = 2;
+
+    /** the value-text */
+    public static final int STYLE_VALUE_TEXT = 3;
+
+    /** the minimum and maximum labels */
+    public static final int STYLE_MIN_MAX_TEXT = 4;
+
+    /**
+     * Fills the bar with the given color.
+     * 
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param color
+     */
+    public void drawBar(float left, float top, float right, float bottom, int color);
+
+    /**
+     * Fills the bar with a horizontal gradient of the given colors, spread
+     * evenly from 0 to trackWidth, so that the bar shows the part of the
+     * gradient it covers. The colors are interpolated in RGB color-space. The
+     * array is not modified between calls unless the gradient changed, so
+     * backends can keep the gradient until trackWidth or colors change.
+     * 
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param trackWidth the width of the whole bar
+     * @param colors at least two colors
+     */
+    public void drawGradientBar(float left, float top, float right, float bottom,
+            float trackWidth, int[] colors);
+
+    /**
+     * Draws a rectangle in the given style (STYLE_BORDER or STYLE_OVERLAY).
+     * 
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param style
+     */
+    public void drawRect(float left, float top, float right, float bottom, int style);
+
+    /**
+     * Draws the given text rotated by 270 degrees around its origin (x, y) in
+     * the given style (STYLE_VALUE_TEXT or STYLE_MIN_MAX_TEXT).
+     * 
+     * @param text
+     * @param x
+     * @param y
+     * @param style
+     */
+    public void drawTextVertical(String text, float x, float y, int style);
+
+    /**
+     * Draws the given characters rotated by 270 degrees around their origin
+     * (x, y) in the given style.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @param x
+     * @param y
+     * @param style
+     */
+    public void drawTextVertical(char[] text, int start, int count, float x, float y,
+            int style);
+}
@@ -0,0 +1,160 @@
+
+package com.philjay.valuebar.core;
+
+/**
+ * Computes where the value-text, its overlay and the minimum and maximum
+ * labels of a bar are placed. The results of the last computation are kept in
+ * the layout, so that one instance can be reused for every frame.
+ * 
+ * @author Philipp Jahoda
+ */
+public class BarLayout {
+
+    /** the value-text is drawn with 1.5 times its height as spacing */
+    private static final float TEXT_SPACING = 1.5f;
+
+    private float mValueTextX, mValueTextY;
+    private float mOverlayLeft;
+    private float mLabelRight;
+    private float mTextHeight;
+
+    private float mMinLabelX, mMinLabelY;
+    private float mMaxLabelX, mMaxLabelY;
+
+    private float mIntrinsicWidth, mIntrinsicHeight;
+
+    /**
+     * Computes the position of the value-text and the overlay below it at the
+     * end of the bar.
+     * 
+     * @param barRight the right edge of the bar
+     * @param height the height of the bar
+     * @param textWidth the measured width of the value-text
+     * @param textHeight the measured height of the value-text
+     */
+    public void layoutValueText(float barRight, float height, float textWidth, float textHeight) {
+
+        float h = textHeight * TEXT_SPACING;
+
+        float x = barRight - h / 2f;
+
+        if (x < h)
+            x = h;
+
+        mValueTextX = x;
+        mValueTextY = height / 2f + textWidth / 2f;
+        mOverlayLeft = x - h / 1.5f - h / 2f;
+        mLabelRight = x + h / 2f;
+        mTextHeight = h;
+    }
+
+    /**
+     * Computes the positions of the minimum and maximum labels at the edges
+     * of the bar.
+     * 
+     * @param width the width of the bar
+     * @param height the height of the bar
+     * @param offsetHeight the height of the minimum label measured with the
+     *            value-text style, determines the distance from the edges
+     * @param minTextWidth the measured width of the minimum label
+     * @param maxTextWidth the measured width of the maximum label
+     */
+    public void layoutMinMaxText(float width, float height, float offsetHeight,
+            float minTextWidth, float maxTextWidth) {
+
+        float offset = offsetHeight * TEXT_SPACING;
+
+        mMinLabelX = offset;
+        mMinLabelY = height / 2f + minTextWidth / 2f;
+        mMaxLabelX = width - offset / 2f;
+        mMaxLabelY = height / 2f + maxTextWidth / 2f;
+    }
+
+    /**
+     * Computes the size a bar needs to display its texts, using the same
+     * placement as layoutValueText(...) and layoutMinMaxText(...): The height
+     * fits the longest (vertical) text with spacing above and below it. The
+     * width fits the value-text at the end of a full bar, and the maximum
+     * label next to the minimum label.
+     * 
+     * @param textWidth the measured width of the longest text
+     * @param valueTextHeight the measured height of the value-text, 0 if the
+     *            value-text is not drawn
+     * @param offsetHeight the height of the minimum label measured with the
+     *            value-text style, 0 if the labels are not drawn
+     * @param labelHeight the measured height of the maximum label, 0 if the
+     *            labels are not drawn
+     */
+    public void layoutIntrinsicSize(float textWidth, float valueTextHeight, float offsetHeight,
+            float labelHeight) {
+
+        float h = valueTextHeight * TEXT_SPACING;
+        float offset = offsetHeight * TEXT_SPACING;
+
+        // the value-text is centered vertically, h / 2 above and below it
+        mIntrinsicHeight = textWidth + h;
+
+        // at the end of a full bar the value-text is placed at width - h / 2
+        // and ends at width, it is only moved out of the bar if that is
+        // less than h
+        float valueTextWidth = h + h / 2f;
+
+        // the maximum label is placed at width - offset / 2, it spans
+        // labelHeight to the left and must not reach the minimum label that
+        // is placed at offset
+        float labelsWidth = offset + offset / 2f + labelHeight;
+
+        mIntrinsicWidth = Math.max(valueTextWidth, labelsWidth);
+    }
+
+    /** the minimum width of a bar to fit its texts */
+    public float getIntrinsicWidth() {
+        return mIntrinsicWidth;
+    }
+
+    /** the minimum height of a bar to fit its texts */
+    public float getIntrinsicHeight() {
+        return mIntrinsicHeight;
+    }
+
+    /** x-position (baseline) of the vertical value-text */
+    public float getValueTextX() {
+        return mValueTextX;
+    }
+
+    /** y-position (start of the text) of the vertical value-text */
+    public float getValueTextY() {
+        return mValueTextY;
+    }
+
+    /** left edge of the overlay below the value-text */
+    public float getOverlayLeft() {
+        return mOverlayLeft;
+    }
+
+    /** right edge of the value-text */
+    public float getLabelRight() {
+        return mLabelRight;
+    }
+
+    /** the height of the value-text including spacing */
+    public float getTextHeight() {
+        return mTextHeight;
+    }
+
+    public float getMinLabelX() {
+        return mMinLabelX;
+    }
+
+    public float getMinLabelY() {
+        return mMinLabelY;
+    }
+
+    public float getMaxLabelX() {
+        return mMaxLabelX;
+    }
+
+    public float getMaxLabelY() {
+        return mMaxLabelY;
+    }
+}
@@ -0,0 +1,582 @@
+
+package com.philjay.valuebar.core;
+
+import com.philjay.valuebar.FixedDecimalFormatter;
+import com.philjay.valuebar.ValueTextCharFormatter;
+import com.philjay.valuebar.ValueTextFormatter;
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.colors.ColorUtils;
+import com.philjay.valuebar.metrics.ValueBarMetrics;
+
+import java.util.Arrays;
+
+/**
+ * Draws a single bar with its labels onto a BarCanvas, independent of the
+ * rendering backend. Holds the drawing flags, the color and value-text
+ * formatters and caches the formatted value-text. Positions are computed by a
+ * BarLayout, texts are measured by a TextMeasurer of the backend.
+ * 
+ * @author Philipp Jahoda
+ */
+public class BarPainter {
+
+    /** the color of the bar if no other color or formatter is set */
+    public static final int DEFAULT_COLOR = ColorUtils.rgb(39, 140, 230);
+
+    private boolean mDrawBorder = true;
+    private boolean mDrawValueText = true;
+    private boolean mDrawMinMaxText = true;
+
+    private BarColorFormatter mColorFormatter;
+    private ValueTextFormatter mValueTextFormatter;
+
+    /** the colors of the gradient fill, null if the color formatter is used */
+    private int[] mGradientColors;
+
+    /** formatter used if only a single color is set */
+    private SingleColorFormatter mSingleColorFormatter;
+
+    /** formatter used if no value-text formatter is set, created once */
+    private FixedDecimalFormatter mDefaultValueTextFormatter;
+
+    /**
+     * the value-text formatter if it is able to format into a char array,
+     * null if not
+     */
+    private ValueTextCharFormatter mValueTextCharFormatter;
+
+    /** the formatted value-text, null if it needs to be formatted again */
+    private String mValueText;
+
+    /** buffer holding the value-text if a ValueTextCharFormatter is used */
+    private char[] mValueChars = new char[ValueTextCharFormatter.BUFFER_LENGTH];
+
+    /** the number of characters in mValueChars, -1 if it needs formatting */
+    private int mValueCharCount = -1;
+
+    /** value, minimum and maximum the value-text was formatted for */
+    private float mTextValue, mTextMin, mTextMax;
+
+    /** the fill color of the last drawn bar */
+    private int mBarColor;
+
+    /** the color last provided by the color formatter */
+    private int mFormattedColor;
+
+    /** value, minimum and maximum mFormattedColor was provided for */
+    private float mColorValue, mColorMin, mColorMax;
+
+    /** false if the color formatter needs to be called again */
+    private boolean mColorValid = false;
+
+    /** the positions computed for the last drawn bar */
+    private BarLayout mLayout = new BarLayout();
+
+    /** counts the formatter calls, null if disabled */
+    private ValueBarMetrics mMetrics;
+
+    public BarPainter() {
+
+        mSingleColorFormatter = new SingleColorFormatter(DEFAULT_COLOR);
+        mColorFormatter = mSingleColorFormatter;
+        setValueTextFormatter(null);
+    }
+
+    /**
+     * Draws the whole bar: minimum and maximum labels, the bar, the border and
+     * the value-text.
+     * 
+     * @param c
+     * @param m
+     * @param width the width of the whole bar
+     * @param height
+     * @param barRight the right edge of the bar for the value
+     * @param value
+     * @param min
+     * @param max
+     * @param minText the formatted minimum
+     * @param maxText the formatted maximum
+     */
+    public void draw(BarCanvas c, TextMeasurer m, float width, float height, float barRight,
+            float value, float min, float max, String minText, String maxText) {
+
+        if (mDrawMinMaxText)
+            drawMinMaxText(c, m, minText, maxText, width, height,
+                    isMinLabelVisible(value, min));
+
+        drawBar(c, width, barRight, height, value, min, max);
+        drawBorder(c, width, height);
+        drawValueText(c, m, barRight, height, value, min, max);
+    }
+
+    /**
+     * Returns true if the minimum label needs to be drawn for the given value.
+     * 
+     * @param value
+     * @param min
+     * @return
+     */
+    public boolean isMinLabelVisible(float value, float min) {
+        return mDrawMinMaxText && (!mDrawValueText || value <= min);
+    }
+
+    /**
+     * Returns true if the value-text needs to be drawn for the given value.
+     * 
+     * @param value
+     * @param min
+     * @return
+     */
+    public boolean isValueTextVisible(float value, float min) {
+        return mDrawValueText && !(value <= min && mDrawMinMaxText);
+    }
+
+    /**
+     * Computes the positions of the minimum and maximum labels, available
+     * from getLayout() afterwards.
+     * 
+     * @param m
+     * @param minText the formatted minimum
+     * @param maxText the formatted maximum
+     * @param width
+     * @param height
+     */
+    public void layoutMinMaxText(TextMeasurer m, String minText, String maxText, float width,
+            float height) {
+
+        mLayout.layoutMinMaxText(width, height,
+                m.getTextHeight(minText, BarCanvas.STYLE_VALUE_TEXT),
+                m.getTextWidth(minText, BarCanvas.STYLE_MIN_MAX_TEXT),
+                m.getTextWidth(maxText, BarCanvas.STYLE_MIN_MAX_TEXT));
+    }
+
+    /**
+     * Measures the size the bar needs to display its texts, available from
+     * getLayout() afterwards. The value-text is measured for the minimum and
+     * maximum value. Formats texts, so the result should be kept until
+     * range, formatter or text styles change.
+     * 
+     * @param m
+     * @param min
+     * @param max
+     * @param minText the formatted minimum
+     * @param maxText the formatted maximum
+     */
+    public void measureIntrinsicSize(TextMeasurer m, float min, float max, String minText,
+            String maxText) {
+
+        float textWidth = 0f;
+        float valueTextHeight = 0f;
+        float offsetHeight = 0f;
+        float labelHeight = 0f;
+
+        if (mDrawValueText) {
+
+            String low = mValueTextFormatter.getValueText(min, max, min);
+            String high = mValueTextFormatter.getValueText(max, max, min);
+
+            textWidth = Math.max(m.getTextWidth(low, BarCanvas.STYLE_VALUE_TEXT),
+                    m.getTextWidth(high, BarCanvas.STYLE_VALUE_TEXT));
+            valueTextHeight = m.getTextHeight(high, BarCanvas.STYLE_VALUE_TEXT);
+        }
+
+        if (mDrawMinMaxText) {
+
+            textWidth = Math.max(textWidth, Math.max(
+                    m.getTextWidth(minText, BarCanvas.STYLE_MIN_MAX_TEXT),
+                    m.getTextWidth(maxText, BarCanvas.STYLE_MIN_MAX_TEXT)));
+            offsetHeight = m.getTextHeight(minText, BarCanvas.STYLE_VALUE_TEXT);
+            labelHeight = m.getTextHeight(maxText, BarCanvas.STYLE_MIN_MAX_TEXT);
+        }
+
+        mLayout.layoutIntrinsicSize(textWidth, valueTextHeight, offsetHeight, labelHeight);
+    }
+
+    /**
+     * Draws the minimum and maximum labels.
+     * 
+     * @param c
+     * @param m
+     * @param minText the formatted minimum
+     * @param maxText the formatted maximum
+     * @param width
+     * @param height
+     * @param drawMin false to only draw the maximum label
+     */
+    public void drawMinMaxText(BarCanvas c, TextMeasurer m, String minText, String maxText,
+            float width, float height, boolean drawMin) {
+
+        layoutMinMaxText(m, minText, maxText, width, height);
+
+        c.drawTextVertical(maxText, mLayout.getMaxLabelX(), mLayout.getMaxLabelY(),
+                BarCanvas.STYLE_MIN_MAX_TEXT);
+
+        if (drawMin)
+            c.drawTextVertical(minText, mLayout.getMinLabelX(), mLayout.getMinLabelY(),
+                    BarCanvas.STYLE_MIN_MAX_TEXT);
+    }
+
+    /**
+     * Draws the bar itself, filled with the gradient (if set) or in the color
+     * provided by the color formatter.
+     * 
+     * @param c
+     * @param width the width of the whole bar
+     * @param barRight
+     * @param height
+     * @param value
+     * @param min
+     * @param max
+     */
+    public void drawBar(BarCanvas c, float width, float barRight, float height, float value,
+            float min, float max) {
+
+        if (mGradientColors != null) {
+            c.drawGradientBar(0, 0, barRight, height, width, mGradientColors);
+            return;
+        }
+
+        mBarColor = getBarColor(value, min, max);
+        c.drawBar(0, 0, barRight, height, mBarColor);
+    }
+
+    /**
+     * Returns the color the color formatter provides for the given value. The
+     * formatter is only called again if value, minimum or maximum differ from
+     * the last call, so checking the color before drawing it does not format
+     * it twice.
+     * 
+     * @param value
+     * @param min
+     * @param max
+     * @return
+     */
+    public int getBarColor(float value, float min, float max) {
+
+        if (!mColorValid || mColorValue != value || mColorMin != min || mColorMax != max) {
+
+            if (mMetrics != null)
+                mMetrics.onColorFormatted();
+
+            mFormattedColor = mColorFormatter.getColor(value, max, min);
+            mColorValue = value;
+            mColorMin = min;
+            mColorMax = max;
+            mColorValid = true;
+        }
+
+        return mFormattedColor;
+    }
+
+    /**
+     * Returns the fill color of the last bar drawn with the color formatter.
+     * 
+     * @return
+     */
+    public int getDrawnBarColor() {
+        return mBarColor;
+    }
+
+    /**
+     * Draws the border around the bar if enabled.
+     * 
+     * @param c
+     * @param width
+     * @param height
+     */
+    public void drawBorder(BarCanvas c, float width, float height) {
+
+        if (mDrawBorder)
+            c.drawRect(0, 0, width, height, BarCanvas.STYLE_BORDER);
+    }
+
+    /**
+     * Formats and measures the value-text and computes its position, available
+     * from getLayout() afterwards.
+     * 
+     * @param m
+     * @param barRight
+     * @param height
+     * @param value
+     * @param min
+     * @param max
+     * @return false if the value-text is not visible
+     */
+    public boolean layoutValueText(TextMeasurer m, float barRight, float height, float value,
+            float min, float max) {
+
+        if (!isValueTextVisible(value, min))
+            return false;
+
+        float textWidth;
+        float textHeight;
+
+        if (mValueTextCharFormatter != null) {
+            int count = formatValueChars(value, min, max);
+            textWidth = m.getTextWidth(mValueChars, 0, count, BarCanvas.STYLE_VALUE_TEXT);
+            textHeight = m.getTextHeight(mValueChars, 0, count, BarCanvas.STYLE_VALUE_TEXT);
+        } else {
+            String text = formatValueText(value, min, max);
+            textWidth = m.getTextWidth(text, BarCanvas.STYLE_VALUE_TEXT);
+            textHeight = m.getTextHeight(text, BarCanvas.STYLE_VALUE_TEXT);
+        }
+
+        mLayout.layoutValueText(barRight, height, textWidth, textHeight);
+        return true;
+    }
+
+    /**
+     * Draws the value-text and the overlay below it at the end of the bar.
+     * Afterwards, getLayout() describes the area that has been drawn.
+     * 
+     * @param c
+     * @param m
+     * @param barRight
+     * @param height
+     * @param value
+     * @param min
+     * @param max
+     * @return false if nothing was drawn
+     */
+    public boolean drawValueText(BarCanvas c, TextMeasurer m, float barRight, float height,
+            float value, float min, float max) {
+
+        if (!layoutValueText(m, barRight, height, value, min, max))
+            return false;
+
+        // draw overlay
+        c.drawRect(mLayout.getOverlayLeft(), 0, barRight, height, BarCanvas.STYLE_OVERLAY);
+
+        float x = mLayout.getValueTextX();
+        float y = mLayout.getValueTextY();
+
+        if (mValueTextCharFormatter != null)
+            c.drawTextVertical(mValueChars, 0, mValueCharCount, x, y,
+                    BarCanvas.STYLE_VALUE_TEXT);
+        else
+            c.drawTextVertical(mValueText, x, y, BarCanvas.STYLE_VALUE_TEXT);
+
+        return true;
+    }
+
+    /**
+     * Returns the layout of the last drawn or laid out bar.
+     * 
+     * @return
+     */
+    public BarLayout getLayout() {
+        return mLayout;
+    }
+
+    /**
+     * Returns the formatted value-text for the given value. The text is only
+     * formatted again if the value has changed since the last call.
+     * 
+     * @param value
+     * @param min
+     * @param max
+     * @return
+     */
+    private String formatValueText(float value, float min, float max) {
+
+        if (mValueText == null || mTextValue != value || mTextMin != min || mTextMax != max) {
+            mValueText = mValueTextFormatter.getValueText(value, max, min);
+
+            if (mMetrics != null)
+                mMetrics.onValueTextFormatted();
+
+            mTextValue = value;
+            mTextMin = min;
+            mTextMax = max;
+        }
+
+        return mValueText;
+    }
+
+    /**
+     * Formats the value-text for the given value into mValueChars, using the
+     * ValueTextCharFormatter. The text is only formatted again if the value
+     * has changed since the last call.
+     * 
+     * @param value
+     * @param min
+     * @param max
+     * @return the number of characters in mValueChars
+     */
+    private int formatValueChars(float value, float min, float max) {
+
+        if (mValueCharCount < 0 || mTextValue != value || mTextMin != min || mTextMax != max) {
+            mValueCharCount = mValueTextCharFormatter.getValueText(value, max, min, mValueChars);
+
+            if (mMetrics != null)
+                mMetrics.onValueTextFormatted();
+
+            mTextValue = value;
+            mTextMin = min;
+            mTextMax = max;
+        }
+
+        return mValueCharCount;
+    }
+
+    /**
+     * Sets the formatter for the value-text, null resets to the default
+     * formatter.
+     * 
+     * @param formatter
+     */
+    public void setValueTextFormatter(ValueTextFormatter formatter) {
+
+        if (formatter == null) {
+            if (mDefaultValueTextFormatter == null)
+                mDefaultValueTextFormatter = new FixedDecimalFormatter(2);
+            formatter = mDefaultValueTextFormatter;
+        }
+
+        mValueTextFormatter = formatter;
+
+        if (formatter instanceof ValueTextCharFormatter)
+            mValueTextCharFormatter = (ValueTextCharFormatter) formatter;
+        else
+            mValueTextCharFormatter = null;
+
+        mValueText = null;
+        mValueCharCount = -1;
+    }
+
+    public ValueTextFormatter getValueTextFormatter() {
+        return mValueTextFormatter;
+    }
+
+    /**
+     * Returns true if the default value-text formatter is used.
+     * 
+     * @return
+     */
+    public boolean isDefaultValueTextFormatter() {
+        return mValueTextFormatter == mDefaultValueTextFormatter;
+    }
+
+    /**
+     * Sets the formatter for the color of the bar, null resets to the default
+     * color.
+     * 
+     * @param formatter
+     */
+    public void setColorFormatter(BarColorFormatter formatter) {
+
+        if (formatter == null) {
+            mSingleColorFormatter.setColor(DEFAULT_COLOR);
+            formatter = mSingleColorFormatter;
+        }
+
+        mColorFormatter = formatter;
+        mColorValid = false;
+    }
+
+    public BarColorFormatter getColorFormatter() {
+        return mColorFormatter;
+    }
+
+    /**
+     * Fills the bar with a gradient of the given colors that spans the whole
+     * width of the bar instead of a single color from the color formatter. The
+     * colors are spread evenly and interpolated in RGB color-space, the bar
+     * shows the part of the gradient it covers. The color formatter is not
+     * called while a gradient is set. Provide null to use the color formatter
+     * again.
+     * 
+     * @param colors at least two colors
+     */
+    public void setGradientFill(int[] colors) {
+
+        if (colors != null && colors.length < 2)
+            throw new IllegalArgumentException("At least two colors are needed for a gradient.");
+
+        if (Arrays.equals(colors, mGradientColors))
+            return;
+
+        // copied, backends may keep the gradient as long as the array is the same
+        mGradientColors = colors == null ? null : colors.clone();
+    }
+
+    /**
+     * Returns the colors of the gradient fill, null if the color formatter is
+     * used.
+     * 
+     * @return
+     */
+    public int[] getGradientFill() {
+        return mGradientColors;
+    }
+
+    /**
+     * Sets a single color for the bar without allocating a formatter.
+     * 
+     * @param color
+     */
+    public void setColor(int color) {
+        mSingleColorFormatter.setColor(color);
+        mColorFormatter = mSingleColorFormatter;
+        mColorValid = false;
+    }
+
+    /**
+     * Sets the metrics that count the formatter calls, null to disable.
+     * 
+     * @param metrics
+     */
+    public void setMetrics(ValueBarMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    public ValueBarMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    public void setDrawBorder(boolean enabled) {
+        mDrawBorder = enabled;
+    }
+
+    public boolean isDrawBorderEnabled() {
+        return mDrawBorder;
+    }
+
+    public void setDrawValueText(boolean enabled) {
+        mDrawValueText = enabled;
+    }
+
+    public boolean isDrawValueTextEnabled() {
+        return mDrawValueText;
+    }
+
+    public void setDrawMinMaxText(boolean enabled) {
+        mDrawMinMaxText = enabled;
+    }
+
+    public boolean isDrawMinMaxTextEnabled() {
+        return mDrawMinMaxText;
+    }
+
+    /**
+     * BarColorFormatter that supports a single color, the color can be
+     * changed without creating a new formatter.
+     */
+    static class SingleColorFormatter implements BarColorFormatter {
+
+        private int mColor;
+
+        public SingleColorFormatter(int color) {
+            mColor = color;
+        }
+
+        public void setColor(int color) {
+            mColor = color;
+        }
+
+        @Override
+        public int getColor(float value, float maxVal, float minVal) {
+            return mColor;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.philjay.valuebar.core;
+
+/**
+ * Computes the cells of an atlas of glyphs that are rendered rotated by 270
+ * degrees, one glyph per cell next to each other, and where a glyph has to be
+ * copied from its cell so that it appears at the same pixels as when the text
+ * is drawn onto a rotated canvas. Cell sizes, glyph origins and copy positions
+ * are whole pixels, the glyphs are copied 1:1 without filtering.
+ * 
+ * @author Philipp Jahoda
+ */
+public class GlyphAtlasLayout {
+
+    /** empty space around each glyph inside its cell, in pixels */
+    public static final int PADDING = 2;
+
+    /** the width of all cells, across the direction of the text */
+    private int mCellWidth;
+
+    /** the distance of the glyph origins from the left edge of their cell */
+    private int mOriginX;
+
+    /** the advance of each glyph */
+    private float[] mAdvances = new float[0];
+
+    /** the height of each cell, along the direction of the text */
+    private int[] mCellHeights = new int[0];
+
+    /** the distance of each glyph origin from the top edge of its cell */
+    private int[] mOriginYs = new int[0];
+
+    /** the height of the whole atlas */
+    private int mHeight;
+
+    /**
+     * Computes the cells for the glyphs with the given metrics. The cells span
+     * the whole height of the font (from top to bottom of its metrics) and
+     * the advance as well as the bounds of each glyph, so that glyphs
+     * reaching beyond their advance are not cut off.
+     * 
+     * @param top the top of the font metrics, relative to the baseline
+     *            (negative)
+     * @param bottom the bottom of the font metrics, relative to the baseline
+     * @param advances the advance of each glyph
+     * @param boundsLeft the left edge of the bounds of each glyph, relative to
+     *            its origin
+     * @param boundsRight the right edge of the bounds of each glyph, relative
+     *            to its origin
+     */
+    public void layout(float top, float bottom, float[] advances, float[] boundsLeft,
+            float[] boundsRight) {
+
+        int count = advances.length;
+
+        // a glyph is rotated around its origin, the top of the font ends up
+        // left of the origin
+        int left = (int) Math.floor(top);
+        int right = (int) Math.ceil(bottom);
+
+        mOriginX = PADDING - left;
+        mCellWidth = right - left + 2 * PADDING;
+
+        mAdvances = advances.clone();
+        mCellHeights = new int[count];
+        mOriginYs = new int[count];
+        mHeight = 1;
+
+        for (int i = 0; i < count; i++) {
+
+            // the end of the glyph ends up above the origin
+            int start = (int) Math.floor(Math.min(0f, boundsLeft[i]));
+            int end = (int) Math.ceil(Math.max(advances[i], boundsRight[i]));
+
+            mOriginYs[i] = PADDING + end;
+            mCellHeights[i] = end - start + 2 * PADDING;
+            mHeight = Math.max(mHeight, mCellHeights[i]);
+        }
+    }
+
+    /**
+     * Returns the number of glyphs in the atlas.
+     * 
+     * @return
+     */
+    public int getGlyphCount() {
+        return mAdvances.length;
+    }
+
+    /**
+     * Returns the width of the whole atlas.
+     * 
+     * @return
+     */
+    public int getWidth() {
+        return Math.max(1, mCellWidth * mAdvances.length);
+    }
+
+    /**
+     * Returns the height of the whole atlas.
+     * 
+     * @return
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Returns the advance of the given glyph.
+     * 
+     * @param glyph
+     * @return
+     */
+    public float getAdvance(int glyph) {
+        return mAdvances[glyph];
+    }
+
+    /**
+     * Returns the left edge of the cell of the given glyph, all cells start
+     * at the top of the atlas.
+     * 
+     * @param glyph
+     * @return
+     */
+    public int getCellLeft(int glyph) {
+        return glyph * mCellWidth;
+    }
+
+    /** the width of all cells */
+    public int getCellWidth() {
+        return mCellWidth;
+    }
+
+    /** the height of the cell of the given glyph */
+    public int getCellHeight(int glyph) {
+        return mCellHeights[glyph];
+    }
+
+    /**
+     * Returns the x-position inside the atlas the given glyph is drawn at,
+     * rotated by 270 degrees around this position.
+     * 
+     * @param glyph
+     * @return
+     */
+    public int getOriginX(int glyph) {
+        return getCellLeft(glyph) + mOriginX;
+    }
+
+    /**
+     * Returns the y-position inside the atlas the given glyph is drawn at,
+     * rotated by 270 degrees around this position.
+     * 
+     * @param glyph
+     * @return
+     */
+    public int getOriginY(int glyph) {
+        return mOriginYs[glyph];
+    }
+
+    /**
+     * Returns the left edge the cell of a glyph is copied to for a text drawn
+     * at the given x-position. The position is rounded to whole pixels, like
+     * the glyph positions of Canvas.drawText(...).
+     * 
+     * @param x the x-position of the text
+     * @return
+     */
+    public int getCopyLeft(float x) {
+        return Math.round(x) - mOriginX;
+    }
+
+    /**
+     * Returns the top edge the cell of the given glyph is copied to for a
+     * text drawn at the given y-position, rounded to whole pixels.
+     * 
+     * @param glyph
+     * @param y the y-position of the text
+     * @param pen the advance of all glyphs of the text before this glyph
+     * @return
+     */
+    public int getCopyTop(int glyph, float y, float pen) {
+        return Math.round(y - pen) - mOriginYs[glyph];
+    }
+}
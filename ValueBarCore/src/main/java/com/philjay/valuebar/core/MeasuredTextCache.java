@@ -0,0 +1,482 @@
+
+package com.philjay.valuebar.core;
+
+/**
+ * Small cache for text measurements (width and height) of a single text
+ * style. Entries are keyed by the text itself and replaced in the order they
+ * were added. The entries are found through an open-addressed hash table, so
+ * lookups stay cheap for caches that hold the texts of many bars. Lookups and
+ * hits do not allocate, which makes the cache suitable for use inside drawing
+ * methods. Subclasses do the actual measuring.
+ * 
+ * @author Philipp Jahoda
+ */
+public abstract class MeasuredTextCache {
+
+    /** initial length of the buffers that store the text of an entry */
+    private static final int INITIAL_KEY_LENGTH = 16;
+
+    /** the number of different texts that are cached at the same time */
+    private int mCapacity;
+
+    /** the cached texts, each entry holds the characters of one text */
+    private char[][] mKeys;
+
+    /** the length of each cached text, -1 for empty entries */
+    private int[] mKeyLengths;
+
+    /** the hash of each cached text */
+    private int[] mKeyHashes;
+
+    /**
+     * hash table of the entries, holds the index of an entry plus one at the
+     * position of its hash (or behind it on collisions), 0 for free positions
+     */
+    private int[] mTable;
+
+    /** cached widths */
+    private float[] mWidths;
+
+    /** cached heights */
+    private float[] mHeights;
+
+    /** index of the entry that will be replaced next */
+    private int mNextSlot = 0;
+
+    /** index of the last entry that was hit */
+    private int mLastHit = 0;
+
+    /**
+     * Creates a cache that holds the measurements of up to the given number
+     * of different texts.
+     * 
+     * @param capacity
+     */
+    protected MeasuredTextCache(int capacity) {
+
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be at least 1.");
+
+        mCapacity = capacity;
+
+        mKeys = new char[capacity][INITIAL_KEY_LENGTH];
+        mKeyLengths = new int[capacity];
+        mKeyHashes = new int[capacity];
+        mWidths = new float[capacity];
+        mHeights = new float[capacity];
+        mTable = new int[tableSize(capacity)];
+
+        clear();
+    }
+
+    /**
+     * Drops all cached measurements.
+     */
+    public void clear() {
+
+        for (int i = 0; i < mCapacity; i++)
+            mKeyLengths[i] = -1;
+
+        for (int i = 0; i < mTable.length; i++)
+            mTable[i] = 0;
+
+        mNextSlot = 0;
+        mLastHit = 0;
+    }
+
+    /**
+     * Returns the number of different texts that are cached at the same time.
+     * 
+     * @return
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Grows the cache to hold at least the given number of different texts,
+     * the cached measurements are kept. Does nothing if the cache is already
+     * large enough.
+     * 
+     * @param capacity
+     */
+    public void ensureCapacity(int capacity) {
+
+        if (capacity <= mCapacity)
+            return;
+
+        char[][] keys = new char[capacity][];
+        System.arraycopy(mKeys, 0, keys, 0, mCapacity);
+
+        int[] keyLengths = new int[capacity];
+        System.arraycopy(mKeyLengths, 0, keyLengths, 0, mCapacity);
+
+        int[] keyHashes = new int[capacity];
+        System.arraycopy(mKeyHashes, 0, keyHashes, 0, mCapacity);
+
+        for (int i = mCapacity; i < capacity; i++) {
+            keys[i] = new char[INITIAL_KEY_LENGTH];
+            keyLengths[i] = -1;
+        }
+
+        float[] widths = new float[capacity];
+        System.arraycopy(mWidths, 0, widths, 0, mCapacity);
+
+        float[] heights = new float[capacity];
+        System.arraycopy(mHeights, 0, heights, 0, mCapacity);
+
+        // the new entries are filled before any entry is replaced
+        mNextSlot = mCapacity;
+
+        mKeys = keys;
+        mKeyLengths = keyLengths;
+        mKeyHashes = keyHashes;
+        mWidths = widths;
+        mHeights = heights;
+        mCapacity = capacity;
+
+        // re-insert the kept entries into a table of the new size
+        mTable = new int[tableSize(capacity)];
+
+        for (int i = 0; i < mCapacity; i++) {
+            if (mKeyLengths[i] >= 0)
+                insert(i);
+        }
+    }
+
+    /**
+     * Returns the width of the given text.
+     * 
+     * @param text
+     * @return
+     */
+    public float getWidth(String text) {
+        return mWidths[lookup(text)];
+    }
+
+    /**
+     * Returns the height of the given text.
+     * 
+     * @param text
+     * @return
+     */
+    public float getHeight(String text) {
+        return mHeights[lookup(text)];
+    }
+
+    /**
+     * Returns the width of the given characters.
+     * 
+     * @param text
+     * @param start the index of the first character
+     * @param count the number of characters
+     * @return
+     */
+    public float getWidth(char[] text, int start, int count) {
+        return mWidths[lookup(text, start, count)];
+    }
+
+    /**
+     * Returns the height of the given characters.
+     * 
+     * @param text
+     * @param start the index of the first character
+     * @param count the number of characters
+     * @return
+     */
+    public float getHeight(char[] text, int start, int count) {
+        return mHeights[lookup(text, start, count)];
+    }
+
+    /**
+     * Called before each lookup, subclasses can drop the entries here if the
+     * style they measure with has changed.
+     */
+    protected void onLookup() {
+    }
+
+    /**
+     * Measures the width of the given text.
+     * 
+     * @param text
+     * @return
+     */
+    protected abstract float measureWidth(String text);
+
+    /**
+     * Measures the height of the given text.
+     * 
+     * @param text
+     * @return
+     */
+    protected abstract float measureHeight(String text);
+
+    /**
+     * Measures the width of the given characters.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @return
+     */
+    protected abstract float measureWidth(char[] text, int start, int count);
+
+    /**
+     * Measures the height of the given characters.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @return
+     */
+    protected abstract float measureHeight(char[] text, int start, int count);
+
+    /**
+     * Returns the index of the entry holding the measurements for the given
+     * text. Measures the text if it is not yet cached.
+     * 
+     * @param text
+     * @return
+     */
+    private int lookup(String text) {
+
+        onLookup();
+
+        if (matches(mLastHit, text))
+            return mLastHit;
+
+        int hash = hash(text);
+        int mask = mTable.length - 1;
+
+        for (int i = hash & mask; mTable[i] != 0; i = (i + 1) & mask) {
+
+            int slot = mTable[i] - 1;
+
+            if (mKeyHashes[slot] == hash && matches(slot, text)) {
+                mLastHit = slot;
+                return slot;
+            }
+        }
+
+        int slot = obtainSlot(text.length(), hash);
+        text.getChars(0, text.length(), mKeys[slot], 0);
+
+        mWidths[slot] = measureWidth(text);
+        mHeights[slot] = measureHeight(text);
+
+        return slot;
+    }
+
+    /**
+     * Returns the index of the entry holding the measurements for the given
+     * characters. Measures the characters if they are not yet cached.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @return
+     */
+    private int lookup(char[] text, int start, int count) {
+
+        onLookup();
+
+        if (matches(mLastHit, text, start, count))
+            return mLastHit;
+
+        int hash = hash(text, start, count);
+        int mask = mTable.length - 1;
+
+        for (int i = hash & mask; mTable[i] != 0; i = (i + 1) & mask) {
+
+            int slot = mTable[i] - 1;
+
+            if (mKeyHashes[slot] == hash && matches(slot, text, start, count)) {
+                mLastHit = slot;
+                return slot;
+            }
+        }
+
+        int slot = obtainSlot(count, hash);
+        System.arraycopy(text, start, mKeys[slot], 0, count);
+
+        mWidths[slot] = measureWidth(text, start, count);
+        mHeights[slot] = measureHeight(text, start, count);
+
+        return slot;
+    }
+
+    /**
+     * Returns true if the entry at the given index holds the given text.
+     * 
+     * @param slot
+     * @param text
+     * @return
+     */
+    private boolean matches(int slot, String text) {
+
+        int length = mKeyLengths[slot];
+
+        if (length != text.length())
+            return false;
+
+        char[] key = mKeys[slot];
+
+        for (int i = 0; i < length; i++) {
+            if (key[i] != text.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the entry at the given index holds the given characters.
+     * 
+     * @param slot
+     * @param text
+     * @param start
+     * @param count
+     * @return
+     */
+    private boolean matches(int slot, char[] text, int start, int count) {
+
+        int length = mKeyLengths[slot];
+
+        if (length != count)
+            return false;
+
+        char[] key = mKeys[slot];
+
+        for (int i = 0; i < length; i++) {
+            if (key[i] != text[start + i])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reserves the next entry for a text of the given length and hash, the
+     * text the entry held before is removed from the hash table.
+     * 
+     * @param length
+     * @param hash
+     * @return
+     */
+    private int obtainSlot(int length, int hash) {
+
+        int slot = mNextSlot;
+        mNextSlot = (mNextSlot + 1) % mCapacity;
+
+        if (mKeyLengths[slot] >= 0)
+            remove(slot);
+
+        if (mKeys[slot].length < length)
+            mKeys[slot] = new char[Math.max(length, mKeys[slot].length * 2)];
+
+        mKeyLengths[slot] = length;
+        mKeyHashes[slot] = hash;
+        insert(slot);
+
+        mLastHit = slot;
+        return slot;
+    }
+
+    /**
+     * Adds the entry at the given index to the hash table.
+     * 
+     * @param slot
+     */
+    private void insert(int slot) {
+
+        int mask = mTable.length - 1;
+        int i = mKeyHashes[slot] & mask;
+
+        while (mTable[i] != 0)
+            i = (i + 1) & mask;
+
+        mTable[i] = slot + 1;
+    }
+
+    /**
+     * Removes the entry at the given index from the hash table. The entries
+     * behind it are moved up so that no lookup stops at the freed position
+     * before reaching them.
+     * 
+     * @param slot
+     */
+    private void remove(int slot) {
+
+        int mask = mTable.length - 1;
+        int i = mKeyHashes[slot] & mask;
+
+        while (mTable[i] != slot + 1)
+            i = (i + 1) & mask;
+
+        for (int j = (i + 1) & mask; mTable[j] != 0; j = (j + 1) & mask) {
+
+            // the position the entry at j would be stored at without collisions
+            int home = mKeyHashes[mTable[j] - 1] & mask;
+
+            // the entry can move to i if i lies on its way from home to j
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                mTable[i] = mTable[j];
+                i = j;
+            }
+        }
+
+        mTable[i] = 0;
+    }
+
+    /**
+     * Returns the hash of the given text, spread so that the low bits the
+     * table uses depend on all characters.
+     * 
+     * @param text
+     * @return
+     */
+    private static int hash(String text) {
+
+        int hash = 0;
+
+        for (int i = 0; i < text.length(); i++)
+            hash = 31 * hash + text.charAt(i);
+
+        return spread(hash);
+    }
+
+    /**
+     * Returns the hash of the given characters, equal to the hash of a text
+     * holding the same characters.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @return
+     */
+    private static int hash(char[] text, int start, int count) {
+
+        int hash = 0;
+
+        for (int i = start; i < start + count; i++)
+            hash = 31 * hash + text[i];
+
+        return spread(hash);
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the size of the hash table for the given capacity, a power of
+     * two that keeps the table at most half full.
+     * 
+     * @param capacity
+     * @return
+     */
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity) << 2;
+    }
+}
@@ -0,0 +1,52 @@
+
+package com.philjay.valuebar.core;
+
+/**
+ * Measures texts the way a rendering backend draws them. The styles are the
+ * text styles of BarCanvas.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface TextMeasurer {
+
+    /**
+     * Returns the width (advance) of the given text in the given style.
+     * 
+     * @param text
+     * @param style
+     * @return
+     */
+    public float getTextWidth(String text, int style);
+
+    /**
+     * Returns the width (advance) of the given characters in the given style.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @param style
+     * @return
+     */
+    public float getTextWidth(char[] text, int start, int count, int style);
+
+    /**
+     * Returns the height of the bounds of the given text in the given style.
+     * 
+     * @param text
+     * @param style
+     * @return
+     */
+    public float getTextHeight(String text, int style);
+
+    /**
+     * Returns the height of the bounds of the given characters in the given
+     * style.
+     * 
+     * @param text
+     * @param start
+     * @param count
+     * @param style
+     * @return
+     */
+    public float getTextHeight(char[] text, int start, int count, int style);
+}
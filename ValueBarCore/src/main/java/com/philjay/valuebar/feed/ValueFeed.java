@@ -0,0 +1,21 @@
+
+package com.philjay.valuebar.feed;
+
+/**
+ * A source of float values (e.g. a telemetry feed) that delivers values to a
+ * ValueFeedSubscriber only as far as the subscriber requested them. This
+ * follows the contract of java.util.concurrent.Flow.Publisher, but with
+ * primitive values and without requiring Android API level 30.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ValueFeed {
+
+    /**
+     * Adds the given subscriber. The feed must call onSubscribe(...) on the
+     * subscriber before delivering any values.
+     * 
+     * @param subscriber
+     */
+    public void subscribe(ValueFeedSubscriber subscriber);
+}
@@ -0,0 +1,41 @@
+
+package com.philjay.valuebar.feed;
+
+/**
+ * Receives values from a ValueFeed. Follows the contract of
+ * java.util.concurrent.Flow.Subscriber: onNext(...) is only called as often as
+ * values have been requested via ValueFeedSubscription.request(...). All
+ * methods may be called on any thread, but never concurrently.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ValueFeedSubscriber {
+
+    /**
+     * Called once before any other method with the subscription that is used
+     * to request values or cancel.
+     * 
+     * @param subscription
+     */
+    public void onSubscribe(ValueFeedSubscription subscription);
+
+    /**
+     * Called with the next value of the feed.
+     * 
+     * @param value
+     */
+    public void onNext(float value);
+
+    /**
+     * Called if the feed failed, no other methods are called afterwards.
+     * 
+     * @param t
+     */
+    public void onError(Throwable t);
+
+    /**
+     * Called if the feed has no more values, no other methods are called
+     * afterwards.
+     */
+    public void onComplete();
+}
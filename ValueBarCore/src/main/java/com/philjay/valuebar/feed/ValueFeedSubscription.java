@@ -0,0 +1,23 @@
+
+package com.philjay.valuebar.feed;
+
+/**
+ * Links a ValueFeedSubscriber to a ValueFeed. Follows the contract of
+ * java.util.concurrent.Flow.Subscription.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ValueFeedSubscription {
+
+    /**
+     * Requests the given number of additional values from the feed.
+     * 
+     * @param n
+     */
+    public void request(long n);
+
+    /**
+     * Stops the feed from delivering values to the subscriber.
+     */
+    public void cancel();
+}
@@ -0,0 +1,199 @@
+
+package com.philjay.valuebar.metrics;
+
+/**
+ * Histogram of durations in nanoseconds with logarithmic buckets: Every power
+ * of two is split into 8 linear sub-buckets, so percentiles are accurate to
+ * 12.5% over the whole range of long. Recording does not allocate and takes a
+ * few instructions. Not thread-safe.
+ * 
+ * @author Philipp Jahoda
+ */
+public class LatencyHistogram {
+
+    /** the number of bits of a value that select the sub-bucket */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** values below SUB_BUCKETS get their own bucket, then 8 per power of 2 */
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private long[] mCounts = new long[BUCKETS];
+
+    private long mCount;
+    private long mSum;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    /**
+     * Records a single duration, negative durations are recorded as 0.
+     * 
+     * @param nanos
+     */
+    public void record(long nanos) {
+
+        if (nanos < 0)
+            nanos = 0;
+
+        mCounts[getIndex(nanos)]++;
+        mCount++;
+        mSum += nanos;
+
+        if (nanos < mMin)
+            mMin = nanos;
+        if (nanos > mMax)
+            mMax = nanos;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     * 
+     * @return
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * Returns the duration below which the given percentage of the recorded
+     * durations lie (upper bound of the bucket), 0 if nothing was recorded.
+     * 
+     * @param percentile 0 - 100
+     * @return
+     */
+    public long getPercentile(double percentile) {
+
+        if (mCount == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(mCount * Math.min(100.0, percentile) / 100.0);
+
+        if (rank < 1)
+            rank = 1;
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+
+            seen += mCounts[i];
+
+            if (seen >= rank)
+                return Math.min(getUpperBound(i), mMax);
+        }
+
+        return mMax;
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+
+        for (int i = 0; i < BUCKETS; i++)
+            mCounts[i] = 0;
+
+        mCount = 0;
+        mSum = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    /**
+     * Returns an immutable summary of the recorded durations.
+     * 
+     * @return
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(mCount, mCount == 0 ? 0 : mMin, mMax,
+                mCount == 0 ? 0 : mSum / mCount, getPercentile(50), getPercentile(90),
+                getPercentile(99));
+    }
+
+    private static int getIndex(long value) {
+
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    private static long getUpperBound(int index) {
+
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+
+        long lower = (SUB_BUCKETS + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Summary of a LatencyHistogram at a point in time, all durations in
+     * nanoseconds.
+     */
+    public static final class Snapshot {
+
+        private final long mCount;
+        private final long mMin;
+        private final long mMax;
+        private final long mMean;
+        private final long mP50;
+        private final long mP90;
+        private final long mP99;
+
+        Snapshot(long count, long min, long max, long mean, long p50, long p90, long p99) {
+            mCount = count;
+            mMin = min;
+            mMax = max;
+            mMean = mean;
+            mP50 = p50;
+            mP90 = p90;
+            mP99 = p99;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getMin() {
+            return mMin;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        public long getMean() {
+            return mMean;
+        }
+
+        public long getP50() {
+            return mP50;
+        }
+
+        public long getP90() {
+            return mP90;
+        }
+
+        public long getP99() {
+            return mP99;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + mCount + " p50=" + toMicros(mP50) + "us p90=" + toMicros(mP90)
+                    + "us p99=" + toMicros(mP99) + "us max=" + toMicros(mMax) + "us";
+        }
+
+        private static long toMicros(long nanos) {
+            return nanos / 1000L;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+
+package com.philjay.valuebar.metrics;
+
+/**
+ * Records how expensive a single bar is: Draw durations, invalidations,
+ * animation frames rendered and skipped, the latency between a touch event
+ * and the listener callback, and how often the formatters are called. Opt-in,
+ * a bar without metrics only pays for a null check. Recording does not
+ * allocate. Must be used on the thread the bar is drawn on, snapshots taken
+ * on other threads may be slightly inconsistent.
+ * 
+ * <pre>
+ * ValueBarMetrics metrics = new ValueBarMetrics();
+ * bar.setMetrics(metrics);
+ * ...
+ * Log.i(TAG, metrics.snapshot().toString());
+ * </pre>
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueBarMetrics {
+
+    /** the frame interval of a 60 Hz display */
+    public static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    private LatencyHistogram mDrawDurations = new LatencyHistogram();
+    private LatencyHistogram mTouchLatencies = new LatencyHistogram();
+
+    private long mInvalidations;
+
+    private long mFramesRendered;
+    private long mFramesSkipped;
+
+    private long mValueTextFormats;
+    private long mLabelFormats;
+    private long mColorFormats;
+
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    /** time of the last animation frame, 0 if no animation is running */
+    private long mLastFrameNanos;
+
+    /** true if an animation frame has not been drawn yet */
+    private boolean mFramePending;
+
+    /**
+     * Records the duration of a single draw of the bar.
+     * 
+     * @param nanos
+     */
+    public void onDraw(long nanos) {
+
+        mDrawDurations.record(nanos);
+
+        if (mFramePending) {
+            mFramesRendered++;
+            mFramePending = false;
+        }
+    }
+
+    /**
+     * Records that the bar requested to be redrawn.
+     */
+    public void onInvalidate() {
+        mInvalidations++;
+    }
+
+    /**
+     * Records a frame of an animation of the value. If more than one frame
+     * interval passed since the previous frame, the frames in between count
+     * as skipped.
+     * 
+     * @param frameNanos the time of the frame (System.nanoTime())
+     */
+    public void onAnimationFrame(long frameNanos) {
+
+        if (mLastFrameNanos != 0) {
+
+            // rounded, small jitter of the frame callbacks is no skip
+            long frames = (frameNanos - mLastFrameNanos + mFrameIntervalNanos / 2)
+                    / mFrameIntervalNanos;
+
+            if (frames > 1)
+                mFramesSkipped += frames - 1;
+        }
+
+        mLastFrameNanos = frameNanos;
+        mFramePending = true;
+    }
+
+    /**
+     * Records that the animation of the value ended or was cancelled, the gap
+     * until the next animation is not counted as skipped frames.
+     */
+    public void onAnimationStopped() {
+        mLastFrameNanos = 0;
+    }
+
+    /**
+     * Records the time between a touch event and the call of the listener
+     * that reports its result.
+     * 
+     * @param nanos
+     */
+    public void onTouchCallback(long nanos) {
+        mTouchLatencies.record(nanos);
+    }
+
+    /**
+     * Records a call of the value-text formatter.
+     */
+    public void onValueTextFormatted() {
+        mValueTextFormats++;
+    }
+
+    /**
+     * Records the formatting of a minimum or maximum label.
+     */
+    public void onLabelFormatted() {
+        mLabelFormats++;
+    }
+
+    /**
+     * Records a call of the color formatter.
+     */
+    public void onColorFormatted() {
+        mColorFormats++;
+    }
+
+    /**
+     * Sets the interval of the display frames, used to detect skipped
+     * animation frames. Default: DEFAULT_FRAME_INTERVAL_NANOS (60 Hz)
+     * 
+     * @param nanos
+     */
+    public void setFrameIntervalNanos(long nanos) {
+
+        if (nanos <= 0)
+            throw new IllegalArgumentException("The frame interval must be greater than 0.");
+
+        mFrameIntervalNanos = nanos;
+    }
+
+    public long getFrameIntervalNanos() {
+        return mFrameIntervalNanos;
+    }
+
+    /**
+     * Returns an immutable copy of everything recorded so far.
+     * 
+     * @return
+     */
+    public ValueBarMetricsSnapshot snapshot() {
+        return new ValueBarMetricsSnapshot(mDrawDurations.snapshot(),
+                mTouchLatencies.snapshot(), mInvalidations, mFramesRendered, mFramesSkipped,
+                mValueTextFormats, mLabelFormats, mColorFormats);
+    }
+
+    /**
+     * Clears everything recorded so far.
+     */
+    public void reset() {
+
+        mDrawDurations.reset();
+        mTouchLatencies.reset();
+
+        mInvalidations = 0;
+        mFramesRendered = 0;
+        mFramesSkipped = 0;
+        mValueTextFormats = 0;
+        mLabelFormats = 0;
+        mColorFormats = 0;
+
+        mLastFrameNanos = 0;
+        mFramePending = false;
+    }
+}
@@ -0,0 +1,121 @@
+
+package com.philjay.valuebar.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of the metrics of a bar, taken by ValueBarMetrics.snapshot().
+ * All durations are in nanoseconds.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class ValueBarMetricsSnapshot {
+
+    private final LatencyHistogram.Snapshot mDraw;
+    private final LatencyHistogram.Snapshot mTouch;
+
+    private final long mInvalidations;
+    private final long mFramesRendered;
+    private final long mFramesSkipped;
+    private final long mValueTextFormats;
+    private final long mLabelFormats;
+    private final long mColorFormats;
+
+    ValueBarMetricsSnapshot(LatencyHistogram.Snapshot draw, LatencyHistogram.Snapshot touch,
+            long invalidations, long framesRendered, long framesSkipped,
+            long valueTextFormats, long labelFormats, long colorFormats) {
+        mDraw = draw;
+        mTouch = touch;
+        mInvalidations = invalidations;
+        mFramesRendered = framesRendered;
+        mFramesSkipped = framesSkipped;
+        mValueTextFormats = valueTextFormats;
+        mLabelFormats = labelFormats;
+        mColorFormats = colorFormats;
+    }
+
+    /**
+     * Returns the durations of onDraw(...).
+     * 
+     * @return
+     */
+    public LatencyHistogram.Snapshot getDrawDurations() {
+        return mDraw;
+    }
+
+    /**
+     * Returns the latencies between touch events and listener callbacks.
+     * 
+     * @return
+     */
+    public LatencyHistogram.Snapshot getTouchLatencies() {
+        return mTouch;
+    }
+
+    public long getInvalidations() {
+        return mInvalidations;
+    }
+
+    public long getFramesRendered() {
+        return mFramesRendered;
+    }
+
+    public long getFramesSkipped() {
+        return mFramesSkipped;
+    }
+
+    public long getValueTextFormats() {
+        return mValueTextFormats;
+    }
+
+    public long getLabelFormats() {
+        return mLabelFormats;
+    }
+
+    public long getColorFormats() {
+        return mColorFormats;
+    }
+
+    /**
+     * Returns all metrics as flat name-value pairs (e.g. "draw.p99" or
+     * "frames.skipped"), in a stable order, for exporting them to any
+     * monitoring system.
+     * 
+     * @return
+     */
+    public Map<String, Long> toMap() {
+
+        Map<String, Long> map = new LinkedHashMap<String, Long>();
+
+        put(map, "draw", mDraw);
+        put(map, "touch", mTouch);
+
+        map.put("invalidations", mInvalidations);
+        map.put("frames.rendered", mFramesRendered);
+        map.put("frames.skipped", mFramesSkipped);
+        map.put("formats.valueText", mValueTextFormats);
+        map.put("formats.label", mLabelFormats);
+        map.put("formats.color", mColorFormats);
+
+        return map;
+    }
+
+    private static void put(Map<String, Long> map, String prefix, LatencyHistogram.Snapshot h) {
+        map.put(prefix + ".count", h.getCount());
+        map.put(prefix + ".min", h.getMin());
+        map.put(prefix + ".mean", h.getMean());
+        map.put(prefix + ".p50", h.getP50());
+        map.put(prefix + ".p90", h.getP90());
+        map.put(prefix + ".p99", h.getP99());
+        map.put(prefix + ".max", h.getMax());
+    }
+
+    @Override
+    public String toString() {
+        return "draw: " + mDraw + ", touch: " + mTouch + ", invalidations=" + mInvalidations
+                + ", frames rendered=" + mFramesRendered + " skipped=" + mFramesSkipped
+                + ", formats valueText=" + mValueTextFormats + " label=" + mLabelFormats
+                + " color=" + mColorFormats;
+    }
+}
@@ -0,0 +1,71 @@
+
+package com.philjay.valuebar.scale;
+
+/**
+ * Base class for ScaleMappers that recomputes the transform only if range or
+ * width changed since the last call of prepare(...).
+ * 
+ * @author Philipp Jahoda
+ */
+public abstract class CachedScaleMapper implements ScaleMapper {
+
+    /** the minimum value the transform was computed for */
+    protected float mMinVal = Float.NaN;
+
+    /** the maximum value the transform was computed for */
+    protected float mMaxVal = Float.NaN;
+
+    /** the width the transform was computed for */
+    protected float mWidth = Float.NaN;
+
+    @Override
+    public final void prepare(float min, float max, float width) {
+
+        if (min == mMinVal && max == mMaxVal && width == mWidth)
+            return;
+
+        mMinVal = min;
+        mMaxVal = max;
+        mWidth = width;
+
+        computeTransform(min, max, width);
+    }
+
+    /**
+     * Forces the transform to be computed again upon the next call of
+     * prepare(...). Call this if a parameter of the mapping changed.
+     */
+    protected void invalidate() {
+        mWidth = Float.NaN;
+    }
+
+    /**
+     * Computes the coefficients or tables of the transform for the given range
+     * and width.
+     * 
+     * @param min
+     * @param max
+     * @param width
+     */
+    protected abstract void computeTransform(float min, float max, float width);
+
+    @Override
+    public boolean isLinear() {
+        return false;
+    }
+
+    /**
+     * Limits the given position to the width of the bar.
+     * 
+     * @param position
+     * @return
+     */
+    protected float clampPosition(float position) {
+
+        if (position <= 0f)
+            return 0f;
+        if (position >= mWidth)
+            return mWidth;
+        return position;
+    }
+}
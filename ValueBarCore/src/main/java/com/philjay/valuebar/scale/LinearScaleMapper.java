@@ -0,0 +1,40 @@
+
+package com.philjay.valuebar.scale;
+
+/**
+ * Maps values linearly to pixel positions. This is the default mapping of
+ * the ValueBar.
+ * 
+ * @author Philipp Jahoda
+ */
+public class LinearScaleMapper extends CachedScaleMapper {
+
+    /** pixels per value */
+    private float mScale;
+
+    @Override
+    protected void computeTransform(float min, float max, float width) {
+        mScale = width / (max - min);
+    }
+
+    @Override
+    public float getPosition(float value) {
+        return mScale * (value - mMinVal);
+    }
+
+    @Override
+    public float getValue(float position) {
+
+        if (position <= 0f)
+            return mMinVal;
+        if (position >= mWidth)
+            return mMaxVal;
+
+        return mMinVal + position / mScale;
+    }
+
+    @Override
+    public boolean isLinear() {
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+
+package com.philjay.valuebar.scale;
+
+/**
+ * Maps values logarithmically to pixel positions, suitable for values that
+ * span several orders of magnitude (e.g. latencies). If the minimum is greater
+ * than zero, position = log(value / min) scaled to the width. Otherwise
+ * log(1 + value - min) is used, which is roughly logarithmic for values much
+ * greater than one. Values below the minimum are mapped to position 0.
+ * 
+ * @author Philipp Jahoda
+ */
+public class LogScaleMapper extends CachedScaleMapper {
+
+    /** the value subtracted before taking the logarithm */
+    private double mOffset;
+
+    /** log of the minimum (after subtracting the offset) */
+    private double mLogMin;
+
+    /** pixels per logarithmic unit */
+    private double mScale;
+
+    @Override
+    protected void computeTransform(float min, float max, float width) {
+
+        mOffset = min > 0f ? 0.0 : min - 1.0;
+        mLogMin = Math.log(min - mOffset);
+        mScale = width / (Math.log(max - mOffset) - mLogMin);
+    }
+
+    @Override
+    public float getPosition(float value) {
+
+        if (value <= mMinVal)
+            return 0f;
+
+        return (float) ((Math.log(value - mOffset) - mLogMin) * mScale);
+    }
+
+    @Override
+    public float getValue(float position) {
+        return (float) (Math.exp(clampPosition(position) / mScale + mLogMin) + mOffset);
+    }
+}
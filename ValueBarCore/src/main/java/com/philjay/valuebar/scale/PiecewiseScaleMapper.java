@@ -0,0 +1,125 @@
+
+package com.philjay.valuebar.scale;
+
+/**
+ * Maps values to pixel positions linearly between a number of breakpoints,
+ * e.g. to give the range 0 - 100 half of the bar and 100 - 10000 the other
+ * half:
+ * 
+ * <pre>
+ * new PiecewiseScaleMapper(new float[] { 0f, 100f, 10000f },
+ *         new float[] { 0f, 0.5f, 1f });
+ * </pre>
+ * 
+ * The first and last breakpoint should match the minimum and maximum of the
+ * bar, values outside of the breakpoints are limited to them. The pixel
+ * positions and slopes of all segments are computed once per width, a value
+ * or position is resolved to its segment by binary search.
+ * 
+ * @author Philipp Jahoda
+ */
+public class PiecewiseScaleMapper extends CachedScaleMapper {
+
+    /** the values of the breakpoints in ascending order */
+    private float[] mValues;
+
+    /** the relative positions (0 - 1) of the breakpoints in ascending order */
+    private float[] mFractions;
+
+    /** the pixel positions of the breakpoints */
+    private float[] mPositions;
+
+    /** pixels per value of each segment */
+    private float[] mSlopes;
+
+    /**
+     * @param values the values of the breakpoints in ascending order, at
+     *            least two
+     * @param fractions the relative positions (0 - 1) of the breakpoints on
+     *            the bar in ascending order
+     */
+    public PiecewiseScaleMapper(float[] values, float[] fractions) {
+
+        if (values.length < 2 || values.length != fractions.length)
+            throw new IllegalArgumentException(
+                    "At least two breakpoints with a value and a position each are needed.");
+
+        mValues = values.clone();
+        mFractions = fractions.clone();
+        mPositions = new float[values.length];
+        mSlopes = new float[values.length - 1];
+    }
+
+    @Override
+    protected void computeTransform(float min, float max, float width) {
+
+        for (int i = 0; i < mPositions.length; i++)
+            mPositions[i] = mFractions[i] * width;
+
+        for (int i = 0; i < mSlopes.length; i++) {
+
+            float range = mValues[i + 1] - mValues[i];
+
+            mSlopes[i] = range > 0f ? (mPositions[i + 1] - mPositions[i]) / range : 0f;
+        }
+    }
+
+    @Override
+    public float getPosition(float value) {
+
+        int last = mValues.length - 1;
+
+        if (value <= mValues[0])
+            return mPositions[0];
+        if (value >= mValues[last])
+            return mPositions[last];
+
+        int i = findSegment(mValues, value);
+
+        return mPositions[i] + (value - mValues[i]) * mSlopes[i];
+    }
+
+    @Override
+    public float getValue(float position) {
+
+        int last = mPositions.length - 1;
+
+        if (position <= mPositions[0])
+            return mValues[0];
+        if (position >= mPositions[last])
+            return mValues[last];
+
+        int i = findSegment(mPositions, position);
+
+        if (mSlopes[i] == 0f)
+            return mValues[i];
+
+        return mValues[i] + (position - mPositions[i]) / mSlopes[i];
+    }
+
+    /**
+     * Returns the index of the segment containing the given key, which must
+     * lie between the first and the last breakpoint.
+     * 
+     * @param breakpoints
+     * @param key
+     * @return
+     */
+    private static int findSegment(float[] breakpoints, float key) {
+
+        int low = 0;
+        int high = breakpoints.length - 2;
+
+        while (low < high) {
+
+            int mid = (low + high + 1) >>> 1;
+
+            if (breakpoints[mid] <= key)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,48 @@
+
+package com.philjay.valuebar.scale;
+
+/**
+ * Interface for mapping the values of a bar to horizontal pixel positions and
+ * back. Implementations compute their transform once in prepare(...) and keep
+ * it as long as range and width stay the same, so that mapping is cheap when
+ * drawing and touching.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ScaleMapper {
+
+    /**
+     * Called before mapping with the current range and width of the bar. Only
+     * recomputes the transform if one of them changed.
+     * 
+     * @param min the minimum value the bar can display
+     * @param max the maximum value the bar can display
+     * @param width the width of the bar in pixels
+     */
+    public void prepare(float min, float max, float width);
+
+    /**
+     * Returns the horizontal position (the length of the bar) in pixels for
+     * the given value.
+     * 
+     * @param value
+     * @return
+     */
+    public float getPosition(float value);
+
+    /**
+     * Returns the value for the given horizontal position in pixels. Positions
+     * outside of the bar are limited to the minimum and maximum value.
+     * 
+     * @param position
+     * @return
+     */
+    public float getValue(float position);
+
+    /**
+     * Returns true if the mapping is linear.
+     * 
+     * @return
+     */
+    public boolean isLinear();
+}
@@ -0,0 +1,37 @@
+
+package com.philjay.valuebar.scale;
+
+/**
+ * Maps values to pixel positions by their square root, which emphasizes
+ * differences between small values less strongly than a logarithmic mapping.
+ * Values below the minimum are mapped to position 0.
+ * 
+ * @author Philipp Jahoda
+ */
+public class SqrtScaleMapper extends CachedScaleMapper {
+
+    /** pixels per square root unit */
+    private double mScale;
+
+    @Override
+    protected void computeTransform(float min, float max, float width) {
+        mScale = width / Math.sqrt(max - (double) min);
+    }
+
+    @Override
+    public float getPosition(float value) {
+
+        if (value <= mMinVal)
+            return 0f;
+
+        return (float) (Math.sqrt(value - (double) mMinVal) * mScale);
+    }
+
+    @Override
+    public float getValue(float position) {
+
+        double root = clampPosition(position) / mScale;
+
+        return (float) (mMinVal + root * root);
+    }
+}
@@ -0,0 +1,68 @@
+
+package com.philjay.valuebar;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated on the heap by the current thread, using the
+ * allocation counters of HotSpot (com.sun.management.ThreadMXBean).
+ * 
+ * @author Philipp Jahoda
+ */
+final class AllocationMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS;
+
+    static {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+
+            THREADS = (com.sun.management.ThreadMXBean) bean;
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            THREADS = null;
+        }
+    }
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * Returns true if the JVM counts allocated bytes per thread.
+     * 
+     * @return
+     */
+    static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Runs the given operation the given number of times and returns the
+     * average number of bytes it allocated per run. The (constant) cost of
+     * reading the counter is subtracted.
+     * 
+     * @param op
+     * @param runs
+     * @return
+     */
+    static double measure(Runnable op, int runs) {
+
+        long id = Thread.currentThread().getId();
+
+        // reading the counter itself may allocate, measure that first
+        long before = THREADS.getThreadAllocatedBytes(id);
+        long overhead = THREADS.getThreadAllocatedBytes(id) - before;
+
+        before = THREADS.getThreadAllocatedBytes(id);
+
+        for (int i = 0; i < runs; i++)
+            op.run();
+
+        long allocated = THREADS.getThreadAllocatedBytes(id) - before - overhead;
+
+        return Math.max(0L, allocated) / (double) runs;
+    }
+}
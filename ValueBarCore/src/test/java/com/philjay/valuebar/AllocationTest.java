@@ -0,0 +1,193 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.philjay.valuebar.colors.GradientColorFormatter;
+import com.philjay.valuebar.colors.GreenToRedFormatter;
+import com.philjay.valuebar.colors.RedToGreenFormatter;
+import com.philjay.valuebar.core.BarPainter;
+import com.philjay.valuebar.metrics.ValueBarMetrics;
+import com.philjay.valuebar.scale.LinearScaleMapper;
+import com.philjay.valuebar.scale.LogScaleMapper;
+import com.philjay.valuebar.scale.ScaleMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Guards the draw and touch paths against allocations: After warming up, a
+ * frame (as drawn by ValueBar.onDraw(...)) and a drag sample (as processed by
+ * ValueBar.onTouchEvent(...)) must not allocate a single object. Fails the
+ * build if an allocation is introduced.
+ * 
+ * @author Philipp Jahoda
+ */
+public class AllocationTest {
+
+    /** runs before measuring, enough for the JIT to compile the paths */
+    private static final int WARMUP_RUNS = 50000;
+
+    private static final int MEASURED_RUNS = 10000;
+
+    private static final float MIN = 0f;
+    private static final float MAX = 1000f;
+    private static final float WIDTH = 1080f;
+    private static final float HEIGHT = 160f;
+
+    /** the values of the frames, every frame formats a new value-text */
+    private static final float[] VALUES = new float[256];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++)
+            VALUES[i] = MIN + (MAX - MIN) * ((i * 37) % VALUES.length) / VALUES.length;
+    }
+
+    private BarPainter mPainter;
+    private ScaleMapper mMapper;
+    private StepModel mSteps;
+
+    private FakeBarCanvas mCanvas;
+    private FakeTextMeasurer mMeasurer;
+
+    private String mMinText;
+    private String mMaxText;
+
+    private int mRun;
+
+    @Before
+    public void setUp() {
+
+        assumeTrue("allocation counters are not supported by this JVM",
+                AllocationMeter.isSupported());
+
+        mPainter = new BarPainter();
+        mMapper = new LinearScaleMapper();
+
+        mSteps = new StepModel();
+        mSteps.setRange(MIN, MAX);
+        mSteps.setInterval(1f);
+
+        mCanvas = new FakeBarCanvas();
+        mMeasurer = new FakeTextMeasurer(30f, 40f);
+
+        mMinText = mPainter.getValueTextFormatter().getMinVal(MIN);
+        mMaxText = mPainter.getValueTextFormatter().getMaxVal(MAX);
+    }
+
+    @Test
+    public void frameWithDefaults() {
+        assertNoAllocations("frame", mFrame);
+    }
+
+    @Test
+    public void frameWithFixedDecimalSuffix() {
+        mPainter.setValueTextFormatter(new FixedDecimalFormatter(0, true, " $"));
+        assertNoAllocations("frame with suffix", mFrame);
+    }
+
+    @Test
+    public void frameWithGradients() {
+
+        mPainter.setColorFormatter(new GreenToRedFormatter());
+        assertNoAllocations("frame with GreenToRedFormatter", mFrame);
+
+        mPainter.setColorFormatter(new RedToGreenFormatter());
+        assertNoAllocations("frame with RedToGreenFormatter", mFrame);
+
+        mPainter.setColorFormatter(new GradientColorFormatter(new int[] {
+                0xff0000ff, 0xffffff00, 0xffff0000
+        }, GradientColorFormatter.MODE_HSV));
+        assertNoAllocations("frame with HSV gradient", mFrame);
+    }
+
+    @Test
+    public void frameWithGradientFill() {
+
+        mPainter.setGradientFill(new int[] {
+                0xffff0000, 0xffffff00, 0xff00ff00
+        });
+        assertNoAllocations("frame with gradient fill", mFrame);
+    }
+
+    @Test
+    public void frameWithMetrics() {
+        mPainter.setMetrics(new ValueBarMetrics());
+        assertNoAllocations("frame with metrics", mFrame);
+    }
+
+    @Test
+    public void dragSample() {
+        assertNoAllocations("drag sample", mDragSample);
+    }
+
+    @Test
+    public void dragSampleWithStepTable() {
+
+        mSteps.setSteps(new float[] {
+                0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000
+        });
+        assertNoAllocations("drag sample with step table", mDragSample);
+    }
+
+    @Test
+    public void dragSampleWithLogScale() {
+
+        mMapper = new LogScaleMapper();
+        assertNoAllocations("drag sample with log scale", mDragSample);
+    }
+
+    /** draws a frame with the next value, like ValueBar.onDraw(...) */
+    private final Runnable mFrame = new Runnable() {
+
+        @Override
+        public void run() {
+
+            float value = VALUES[mRun++ & (VALUES.length - 1)];
+
+            mMapper.prepare(MIN, MAX, WIDTH);
+
+            mPainter.draw(mCanvas, mMeasurer, WIDTH, HEIGHT, mMapper.getPosition(value), value,
+                    MIN, MAX, mMinText, mMaxText);
+        }
+    };
+
+    /**
+     * processes the next touch position of a drag, like
+     * ValueBar.updateValue(...) followed by invalidateValue()
+     */
+    private final Runnable mDragSample = new Runnable() {
+
+        @Override
+        public void run() {
+
+            float x = WIDTH * (mRun++ & 1023) / 1024f;
+            float value;
+
+            if (mMapper.isLinear()) {
+                value = mSteps.getValueForPosition(x, WIDTH);
+            } else {
+                mMapper.prepare(MIN, MAX, WIDTH);
+                value = mSteps.snapValue(mMapper.getValue(x));
+            }
+
+            mMapper.prepare(MIN, MAX, WIDTH);
+            mMapper.getPosition(value);
+
+            mPainter.isMinLabelVisible(value, MIN);
+            mPainter.isValueTextVisible(value, MIN);
+        }
+    };
+
+    private void assertNoAllocations(String name, Runnable op) {
+
+        AllocationMeter.measure(op, WARMUP_RUNS);
+
+        double bytes = AllocationMeter.measure(op, MEASURED_RUNS);
+
+        // any allocated object takes at least 16 bytes, less than 1 byte per
+        // run on average leaves room for a one-time allocation of the JVM
+        assertTrue(name + " allocates " + bytes + " bytes per run", bytes < 1.0);
+    }
+}
@@ -0,0 +1,74 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertEquals;
+
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.core.BarPainter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the color formatter runs once per value: ValueBar compares the
+ * color of the new value with the drawn one before drawing it, which must not
+ * format the color a second time.
+ * 
+ * @author Philipp Jahoda
+ */
+public class BarColorTest {
+
+    private BarPainter mPainter;
+    private CountingFormatter mFormatter;
+    private FakeBarCanvas mCanvas;
+
+    @Before
+    public void setUp() {
+
+        mPainter = new BarPainter();
+        mFormatter = new CountingFormatter();
+        mCanvas = new FakeBarCanvas();
+
+        mPainter.setColorFormatter(mFormatter);
+    }
+
+    @Test
+    public void checkedColorIsDrawn() {
+
+        int color = mPainter.getBarColor(500f, 0f, 1000f);
+        mPainter.drawBar(mCanvas, 1000f, 500f, 40f, 500f, 0f, 1000f);
+
+        assertEquals(color, mPainter.getDrawnBarColor());
+        assertEquals(1, mFormatter.mCalls);
+
+        mPainter.drawBar(mCanvas, 1000f, 600f, 40f, 600f, 0f, 1000f);
+
+        assertEquals(2, mFormatter.mCalls);
+    }
+
+    @Test
+    public void newFormatterIsCalled() {
+
+        mPainter.getBarColor(500f, 0f, 1000f);
+
+        mPainter.setColor(0xff00ff00);
+        assertEquals(0xff00ff00, mPainter.getBarColor(500f, 0f, 1000f));
+
+        mPainter.setColorFormatter(mFormatter);
+        mPainter.getBarColor(500f, 0f, 1000f);
+
+        assertEquals(2, mFormatter.mCalls);
+    }
+
+    /** returns the value as color and counts the calls */
+    private static class CountingFormatter implements BarColorFormatter {
+
+        private int mCalls;
+
+        @Override
+        public int getColor(float value, float maxVal, float minVal) {
+            mCalls++;
+            return (int) value;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.core.BarCanvas;
+
+/**
+ * BarCanvas that draws nothing but sums up the coordinates and colors it
+ * receives, so that the JIT can not eliminate the drawing calls.
+ * 
+ * @author Philipp Jahoda
+ */
+public class FakeBarCanvas implements BarCanvas {
+
+    private double mChecksum;
+
+    @Override
+    public void drawBar(float left, float top, float right, float bottom, int color) {
+        mChecksum += left + top + right + bottom + color;
+    }
+
+    @Override
+    public void drawGradientBar(float left, float top, float right, float bottom,
+            float trackWidth, int[] colors) {
+        mChecksum += left + top + right + bottom + trackWidth + colors.length;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int style) {
+        mChecksum += left + top + right + bottom + style;
+    }
+
+    @Override
+    public void drawTextVertical(String text, float x, float y, int style) {
+        mChecksum += text.length() + x + y + style;
+    }
+
+    @Override
+    public void drawTextVertical(char[] text, int start, int count, float x, float y,
+            int style) {
+        mChecksum += text[start] + count + x + y + style;
+    }
+
+    /**
+     * Returns the sum of everything drawn so far.
+     * 
+     * @return
+     */
+    public double getChecksum() {
+        return mChecksum;
+    }
+}
@@ -0,0 +1,45 @@
+
+package com.philjay.valuebar;
+
+import com.philjay.valuebar.core.TextMeasurer;
+
+/**
+ * TextMeasurer of a monospaced font: Every character has the same width and
+ * every text the same height. Measures without allocating.
+ * 
+ * @author Philipp Jahoda
+ */
+public class FakeTextMeasurer implements TextMeasurer {
+
+    private float mCharWidth;
+    private float mTextHeight;
+
+    /**
+     * @param charWidth the width of a single character in pixels
+     * @param textHeight the height of any text in pixels
+     */
+    public FakeTextMeasurer(float charWidth, float textHeight) {
+        mCharWidth = charWidth;
+        mTextHeight = textHeight;
+    }
+
+    @Override
+    public float getTextWidth(String text, int style) {
+        return text.length() * mCharWidth;
+    }
+
+    @Override
+    public float getTextWidth(char[] text, int start, int count, int style) {
+        return count * mCharWidth;
+    }
+
+    @Override
+    public float getTextHeight(String text, int style) {
+        return mTextHeight;
+    }
+
+    @Override
+    public float getTextHeight(char[] text, int start, int count, int style) {
+        return mTextHeight;
+    }
+}
@@ -0,0 +1,106 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertEquals;
+
+import com.philjay.valuebar.core.BarPainter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Pins the output of the default value-text formatter: It has to format
+ * values exactly like the DecimalFormat("###,###,##0.00") the ValueBar used
+ * before, both into a String and into a char array.
+ * 
+ * @author Philipp Jahoda
+ */
+public class FixedDecimalFormatterTest {
+
+    private Locale mLocale;
+
+    private ValueTextFormatter mFormatter;
+    private DecimalFormat mReference;
+
+    private char[] mBuffer = new char[ValueTextCharFormatter.BUFFER_LENGTH];
+
+    @Before
+    public void setUp() {
+
+        mLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+
+        mFormatter = new BarPainter().getValueTextFormatter();
+        mReference = new DecimalFormat("###,###,##0.00");
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(mLocale);
+    }
+
+    @Test
+    public void formatsLikeBefore() {
+        assertFormat("0.00", 0f);
+        assertFormat("1,234.50", 1234.5f);
+        assertFormat("-1,234,567.00", -1234567f);
+        assertFormat("0.12", 0.125f);
+        assertFormat("0.38", 0.375f);
+        assertFormat("0.00", 0.005f);
+        assertFormat("-0.00", -0.001f);
+        assertFormat("-0.00", -0f);
+        assertFormat("999,999,984,306,749,440.00", 1e18f);
+    }
+
+    @Test
+    public void roundsHalfEven() {
+
+        // quarters and eighths are exact as floats, every second one is a tie
+        for (int i = -4000; i <= 4000; i++)
+            assertSameAsReference(i / 8f);
+    }
+
+    @Test
+    public void formatsSpecialValuesLikeReference() {
+
+        float[] values = new float[] {
+                Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.MAX_VALUE,
+                -Float.MAX_VALUE, Float.MIN_VALUE, 1e15f, 1e17f, 123456789e10f
+        };
+
+        for (float value : values)
+            assertSameAsReference(value);
+    }
+
+    @Test
+    public void formatsRandomValuesLikeReference() {
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+
+            float value = (random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(20));
+            assertSameAsReference(value);
+
+            // raw bit patterns reach every exponent
+            assertSameAsReference(Float.intBitsToFloat(random.nextInt()));
+        }
+    }
+
+    private void assertSameAsReference(float value) {
+        assertFormat(mReference.format(value), value);
+    }
+
+    private void assertFormat(String expected, float value) {
+
+        assertEquals(expected, mFormatter.getValueText(value, 0f, 0f));
+
+        int length = ((ValueTextCharFormatter) mFormatter).getValueText(value, 0f, 0f, mBuffer);
+        assertEquals(expected, new String(mBuffer, 0, length));
+    }
+}
@@ -0,0 +1,187 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.philjay.valuebar.core.GlyphAtlasLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+
+/**
+ * Renders texts from a glyph atlas laid out by GlyphAtlasLayout and compares
+ * them pixel by pixel with the same texts drawn rotated by 270 degrees, the
+ * way the Android GlyphAtlas builds and uses its atlas. Java2D stands in for
+ * the Android canvas, the glyphs are drawn without anti-aliasing so that the
+ * comparison is exact.
+ * 
+ * @author Philipp Jahoda
+ */
+public class GlyphAtlasLayoutTest {
+
+    private static final String GLYPHS = "0123456789.,-+%$ ";
+
+    private static final int SIZE = 300;
+
+    private Font mFont;
+    private GlyphAtlasLayout mLayout;
+    private BufferedImage mAtlas;
+
+    @Before
+    public void setUp() {
+
+        System.setProperty("java.awt.headless", "true");
+
+        mFont = new Font(Font.SANS_SERIF, Font.PLAIN, 27);
+
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = createGraphics(scratch);
+        FontMetrics fm = g.getFontMetrics();
+        FontRenderContext frc = g.getFontRenderContext();
+        g.dispose();
+
+        int count = GLYPHS.length();
+
+        float[] advances = new float[count];
+        float[] boundsLeft = new float[count];
+        float[] boundsRight = new float[count];
+
+        for (int i = 0; i < count; i++) {
+
+            String glyph = GLYPHS.substring(i, i + 1);
+            Rectangle bounds = mFont.createGlyphVector(frc, glyph).getPixelBounds(frc, 0f, 0f);
+
+            advances[i] = fm.stringWidth(glyph);
+            boundsLeft[i] = bounds.x;
+            boundsRight[i] = bounds.x + bounds.width;
+        }
+
+        mLayout = new GlyphAtlasLayout();
+        mLayout.layout(-fm.getMaxAscent(), fm.getMaxDescent(), advances, boundsLeft,
+                boundsRight);
+
+        mAtlas = new BufferedImage(mLayout.getWidth(), mLayout.getHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+
+        for (int i = 0; i < count; i++) {
+
+            int x = mLayout.getOriginX(i);
+            int y = mLayout.getOriginY(i);
+
+            g = createGraphics(mAtlas);
+            g.rotate(Math.toRadians(270), x, y);
+            g.drawString(GLYPHS.substring(i, i + 1), x, y);
+            g.dispose();
+        }
+    }
+
+    @Test
+    public void atlasTextEqualsDrawnText() {
+        assertSameAsDrawn("1,234.50", 100, 250);
+        assertSameAsDrawn("-98,765 $", 57, 280);
+        assertSameAsDrawn("100%", 200, 120);
+    }
+
+    @Test
+    public void fractionalPositionsAreSnapped() {
+
+        // drawn at the closest whole pixel instead of a blurred in-between
+        assertArrayEquals(drawRotated("42.00", 100, 250), drawFromAtlas("42.00", 100.4f, 249.6f));
+    }
+
+    private void assertSameAsDrawn(String text, int x, int y) {
+
+        int[] drawn = drawRotated(text, x, y);
+
+        int inked = 0;
+        for (int alpha : drawn) {
+            if (alpha != 0)
+                inked++;
+        }
+
+        assertTrue(inked > 0);
+        assertArrayEquals(drawn, drawFromAtlas(text, x, y));
+    }
+
+    /**
+     * Draws the text onto a rotated canvas and returns the alpha of each
+     * pixel.
+     */
+    private int[] drawRotated(String text, int x, int y) {
+
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g = createGraphics(image);
+        g.rotate(Math.toRadians(270), x, y);
+        g.drawString(text, x, y);
+        g.dispose();
+
+        return getAlphas(image);
+    }
+
+    /**
+     * Copies the glyphs of the text from the atlas and returns the alpha of
+     * each pixel.
+     */
+    private int[] drawFromAtlas(String text, float x, float y) {
+
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+
+        float pen = 0f;
+
+        for (int i = 0; i < text.length(); i++) {
+
+            int glyph = GLYPHS.indexOf(text.charAt(i));
+
+            int srcLeft = mLayout.getCellLeft(glyph);
+            int width = mLayout.getCellWidth();
+            int height = mLayout.getCellHeight(glyph);
+
+            int dstLeft = mLayout.getCopyLeft(x);
+            int dstTop = mLayout.getCopyTop(glyph, y, pen);
+
+            g.drawImage(mAtlas, dstLeft, dstTop, dstLeft + width, dstTop + height, srcLeft, 0,
+                    srcLeft + width, height, null);
+
+            pen += mLayout.getAdvance(glyph);
+        }
+
+        g.dispose();
+
+        return getAlphas(image);
+    }
+
+    private Graphics2D createGraphics(BufferedImage image) {
+
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+        g.setFont(mFont);
+        g.setColor(Color.BLACK);
+        return g;
+    }
+
+    private static int[] getAlphas(BufferedImage image) {
+
+        int[] alphas = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0,
+                image.getWidth());
+
+        for (int i = 0; i < alphas.length; i++)
+            alphas[i] >>>= 24;
+
+        return alphas;
+    }
+}
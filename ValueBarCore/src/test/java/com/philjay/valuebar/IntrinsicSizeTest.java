@@ -0,0 +1,139 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.philjay.valuebar.core.BarLayout;
+import com.philjay.valuebar.core.BarPainter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a bar of its intrinsic size fits its texts, as placed by
+ * BarLayout for drawing: The value-text at the end of a full and an empty
+ * bar, and the minimum and maximum labels next to each other.
+ * 
+ * @author Philipp Jahoda
+ */
+public class IntrinsicSizeTest {
+
+    private static final float MIN = 0f;
+    private static final float MAX = 1000f;
+
+    private static final float CHAR_WIDTH = 30f;
+    private static final float TEXT_HEIGHT = 40f;
+
+    /** tolerance for rounding errors of the float computations */
+    private static final float EPSILON = 0.001f;
+
+    private BarPainter mPainter;
+    private FakeTextMeasurer mMeasurer;
+
+    private String mMinText;
+    private String mMaxText;
+
+    @Before
+    public void setUp() {
+
+        mPainter = new BarPainter();
+        mMeasurer = new FakeTextMeasurer(CHAR_WIDTH, TEXT_HEIGHT);
+
+        mMinText = mPainter.getValueTextFormatter().getMinVal(MIN);
+        mMaxText = mPainter.getValueTextFormatter().getMaxVal(MAX);
+    }
+
+    @Test
+    public void textsFit() {
+
+        BarLayout layout = measure();
+
+        assertValueTextFits(layout.getIntrinsicWidth(), layout.getIntrinsicHeight());
+        assertLabelsFit(layout.getIntrinsicWidth(), layout.getIntrinsicHeight());
+    }
+
+    @Test
+    public void valueTextFits() {
+
+        mPainter.setDrawMinMaxText(false);
+
+        BarLayout layout = measure();
+
+        assertValueTextFits(layout.getIntrinsicWidth(), layout.getIntrinsicHeight());
+
+        // the width is not larger than needed
+        mPainter.layoutValueText(mMeasurer, layout.getIntrinsicWidth() - 1f,
+                layout.getIntrinsicHeight(), MAX, MIN, MAX);
+        assertTrue(layout.getLabelRight() > layout.getIntrinsicWidth() - 1f);
+    }
+
+    @Test
+    public void labelsFit() {
+
+        mPainter.setDrawValueText(false);
+
+        BarLayout layout = measure();
+
+        assertLabelsFit(layout.getIntrinsicWidth(), layout.getIntrinsicHeight());
+
+        // the width is not larger than needed
+        mPainter.layoutMinMaxText(mMeasurer, mMinText, mMaxText,
+                layout.getIntrinsicWidth() - 1f, layout.getIntrinsicHeight());
+        assertFalse(layout.getMaxLabelX() - TEXT_HEIGHT >= layout.getMinLabelX());
+    }
+
+    private BarLayout measure() {
+        mPainter.measureIntrinsicSize(mMeasurer, MIN, MAX, mMinText, mMaxText);
+        return mPainter.getLayout();
+    }
+
+    /**
+     * Asserts that the value-text at the end of a full and an (almost) empty
+     * bar lies within the given size.
+     */
+    private void assertValueTextFits(float width, float height) {
+
+        BarLayout layout = mPainter.getLayout();
+
+        float[] values = new float[] {
+                MAX, MIN + 1f
+        };
+
+        for (float value : values) {
+
+            float textWidth = mPainter.getValueTextFormatter().getValueText(value, MAX, MIN)
+                    .length() * CHAR_WIDTH;
+
+            assertTrue(mPainter.layoutValueText(mMeasurer, width * value / MAX, height, value,
+                    MIN, MAX));
+
+            // the vertical text spans its height left of its baseline
+            assertTrue(layout.getValueTextX() - TEXT_HEIGHT >= 0f);
+            assertTrue(layout.getLabelRight() <= width + EPSILON);
+
+            // the vertical text spans its width upwards from its start
+            assertTrue(layout.getValueTextY() - textWidth >= 0f);
+            assertTrue(layout.getValueTextY() <= height + EPSILON);
+        }
+    }
+
+    /**
+     * Asserts that the minimum and maximum labels lie within the given size
+     * and do not overlap.
+     */
+    private void assertLabelsFit(float width, float height) {
+
+        BarLayout layout = mPainter.getLayout();
+
+        mPainter.layoutMinMaxText(mMeasurer, mMinText, mMaxText, width, height);
+
+        assertTrue(layout.getMaxLabelX() <= width);
+        assertTrue(layout.getMaxLabelX() - TEXT_HEIGHT >= layout.getMinLabelX() - EPSILON);
+
+        assertTrue(layout.getMinLabelY() - mMinText.length() * CHAR_WIDTH >= 0f);
+        assertTrue(layout.getMaxLabelY() - mMaxText.length() * CHAR_WIDTH >= 0f);
+        assertTrue(layout.getMinLabelY() <= height + EPSILON);
+        assertTrue(layout.getMaxLabelY() <= height + EPSILON);
+    }
+}
@@ -0,0 +1,124 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertEquals;
+
+import com.philjay.valuebar.core.MeasuredTextCache;
+
+import org.junit.Test;
+
+/**
+ * Checks that the cache measures each text once while it is cached, and again
+ * after it was replaced, also when many entries share positions of the hash
+ * table.
+ * 
+ * @author Philipp Jahoda
+ */
+public class MeasuredTextCacheTest {
+
+    private static final int CAPACITY = 64;
+
+    @Test
+    public void cachedTextsAreMeasuredOnce() {
+
+        CountingCache cache = new CountingCache(CAPACITY);
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < CAPACITY; i++)
+                assertEquals(text(i).length(), cache.getWidth(text(i)), 0f);
+        }
+
+        assertEquals(CAPACITY, cache.mMeasurements);
+    }
+
+    @Test
+    public void replacedTextsAreMeasuredAgain() {
+
+        CountingCache cache = new CountingCache(CAPACITY);
+
+        // the second half replaces the oldest entries in the order they were
+        // added, each replacement removes an entry from the hash table
+        for (int i = 0; i < CAPACITY * 3 / 2; i++)
+            cache.getWidth(text(i));
+
+        cache.mMeasurements = 0;
+
+        for (int i = CAPACITY / 2; i < CAPACITY * 3 / 2; i++)
+            cache.getWidth(text(i));
+
+        assertEquals(0, cache.mMeasurements);
+
+        cache.getWidth(text(0));
+
+        assertEquals(1, cache.mMeasurements);
+    }
+
+    @Test
+    public void charactersHitTextEntries() {
+
+        CountingCache cache = new CountingCache(CAPACITY);
+
+        for (int i = 0; i < CAPACITY; i++)
+            cache.getWidth(text(i));
+
+        for (int i = 0; i < CAPACITY; i++) {
+            char[] chars = (" " + text(i) + " ").toCharArray();
+            cache.getHeight(chars, 1, chars.length - 2);
+        }
+
+        assertEquals(CAPACITY, cache.mMeasurements);
+    }
+
+    @Test
+    public void grownCacheKeepsEntries() {
+
+        CountingCache cache = new CountingCache(CAPACITY);
+
+        for (int i = 0; i < CAPACITY; i++)
+            cache.getWidth(text(i));
+
+        cache.ensureCapacity(CAPACITY * 4);
+
+        for (int i = 0; i < CAPACITY * 4; i++)
+            cache.getWidth(text(i));
+
+        assertEquals(CAPACITY * 4, cache.mMeasurements);
+    }
+
+    /** value-texts like those of the bars of a group */
+    private static String text(int i) {
+        return i + ".00";
+    }
+
+    /** measures every character 1 wide and counts the measurements */
+    private static class CountingCache extends MeasuredTextCache {
+
+        private int mMeasurements;
+
+        CountingCache(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        protected float measureWidth(String text) {
+            mMeasurements++;
+            return text.length();
+        }
+
+        @Override
+        protected float measureHeight(String text) {
+            return 1f;
+        }
+
+        @Override
+        protected float measureWidth(char[] text, int start, int count) {
+            mMeasurements++;
+            return count;
+        }
+
+        @Override
+        protected float measureHeight(char[] text, int start, int count) {
+            return 1f;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+
+package com.philjay.valuebar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.philjay.valuebar.core.BarPainter;
+import com.philjay.valuebar.scale.LogScaleMapper;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Binds the states of different items one after another to the same step
+ * model and painter, the way ValueBar.bind(...) does when a bar is recycled in
+ * a list: Step table and gradient fill of an item must not remain when an item
+ * without them is bound, and binding the same tables again keeps them without
+ * copying.
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueBarStateTest {
+
+    private ValueBarState mStepped;
+    private ValueBarState mPlain;
+
+    private StepModel mSteps;
+    private BarPainter mPainter;
+
+    @Before
+    public void setUp() {
+
+        mStepped = new ValueBarState()
+                .setMinMax(1f, 100f)
+                .setSteps(new float[] {
+                        50f, 1f, 10f, 100f
+                })
+                .setGradientFill(new int[] {
+                        0xffff0000, 0xff00ff00
+                })
+                .setScaleMapper(new LogScaleMapper());
+
+        mPlain = new ValueBarState().setMinMax(0f, 100f);
+
+        mSteps = new StepModel();
+        mPainter = new BarPainter();
+    }
+
+    @Test
+    public void recycledBarDropsPreviousItem() {
+
+        bind(mStepped);
+
+        assertArrayEquals(new float[] {
+                1f, 10f, 50f, 100f
+        }, mSteps.getSteps(), 0f);
+        assertTrue(mPainter.getGradientFill() != null);
+
+        bind(mPlain);
+
+        assertNull(mSteps.getSteps());
+        assertNull(mPainter.getGradientFill());
+        assertNull(mPlain.getScaleMapper());
+
+        // the uniform interval of 1 applies again
+        assertEquals(101, mSteps.getStepCount());
+    }
+
+    @Test
+    public void rebindingKeepsEqualTables() {
+
+        bind(mStepped);
+
+        float[] steps = mSteps.getSteps();
+        int[] gradient = mPainter.getGradientFill();
+
+        bind(new ValueBarState()
+                .setMinMax(1f, 100f)
+                .setSteps(new float[] {
+                        1f, 10f, 50f, 100f
+                })
+                .setGradientFill(new int[] {
+                        0xffff0000, 0xff00ff00
+                }));
+
+        assertSame(steps, mSteps.getSteps());
+        assertSame(gradient, mPainter.getGradientFill());
+    }
+
+    /** applies the state like ValueBar.bind(...) */
+    private void bind(ValueBarState state) {
+        mSteps.setRange(state.getMin(), state.getMax());
+        mSteps.setInterval(state.getInterval());
+        mSteps.setSteps(state.getSteps());
+        mPainter.setGradientFill(state.getGradientFill());
+    }
+}
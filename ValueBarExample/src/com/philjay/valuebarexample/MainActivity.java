@@ -39,19 +39,23 @@ public class MainActivity extends Activity implements ValueBarSelectionListener
 
         for (ValueBar bar : mValueBars) {
 
-            bar.setMinMax(0, 1000);
-            bar.animate(0, 900, 1500);
-            bar.setInterval(1f);
-            bar.setDrawBorder(false);
             bar.setValueBarSelectionListener(this);
-            bar.setValueTextSize(14f);
-            bar.setMinMaxTextSize(16f);
-            bar.setValueTextTypeface(tf);
-            bar.setMinMaxTextTypeface(tf);
-            bar.setValueTextFormatter(new MyCustomValueTextFormatter());
-            bar.setColorFormatter(new RedToGreenFormatter());
-            bar.setOverlayColor(Color.BLACK);
-            // bar.setColor(Color.BLUE);
+
+            bar.edit()
+                    .setMinMax(0, 1000)
+                    .setInterval(1f)
+                    .setDrawBorder(false)
+                    .setValueTextSize(14f)
+                    .setMinMaxTextSize(16f)
+                    .setValueTextTypeface(tf)
+                    .setMinMaxTextTypeface(tf)
+                    .setValueTextFormatter(new MyCustomValueTextFormatter())
+                    .setColorFormatter(new RedToGreenFormatter())
+                    .setOverlayColor(Color.BLACK)
+                    // .setColor(Color.BLUE)
+                    .commit();
+
+            bar.animate(0, 900, 1500);
         }
     }
 
@@ -69,18 +73,14 @@ public class MainActivity extends Activity implements ValueBarSelectionListener
 
     private void toggleMinMaxLabel() {
 
-        for (ValueBar bar : mValueBars) {
-            bar.setDrawMinMaxText(bar.isDrawMinMaxTextEnabled() ? false : true);
-            bar.invalidate();
-        }
+        for (ValueBar bar : mValueBars)
+            bar.edit().setDrawMinMaxText(!bar.isDrawMinMaxTextEnabled()).commit();
     }
 
     private void toggleValueLabel() {
 
-        for (ValueBar bar : mValueBars) {
-            bar.setDrawValueText(bar.isDrawValueTextEnabled() ? false : true);
-            bar.invalidate();
-        }
+        for (ValueBar bar : mValueBars)
+            bar.edit().setDrawValueText(!bar.isDrawValueTextEnabled()).commit();
     }
 
     @Override
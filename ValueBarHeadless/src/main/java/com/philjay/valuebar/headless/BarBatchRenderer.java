@@ -0,0 +1,208 @@
+
+package com.philjay.valuebar.headless;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders lists of bars to PNG in parallel on a ForkJoinPool. Every worker
+ * thread renders with its own HeadlessBarRenderer (created by the given
+ * factory), so formatters and image buffers are never shared between threads
+ * and are reused for all bars the thread renders.
+ * 
+ * <pre>
+ * BarBatchRenderer batch = new BarBatchRenderer(new BarBatchRenderer.RendererFactory() {
+ *     public HeadlessBarRenderer create() {
+ *         HeadlessBarRenderer r = new HeadlessBarRenderer(2f);
+ *         r.getPainter().setColorFormatter(new RedToGreenFormatter());
+ *         return r;
+ *     }
+ * });
+ * batch.renderPng(specs, new File(&quot;bars&quot;));
+ * </pre>
+ * 
+ * @author Philipp Jahoda
+ */
+public class BarBatchRenderer {
+
+    /** the number of bars below which a task is not split any further */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    /**
+     * Creates and configures the renderers of the worker threads. Called once
+     * per thread.
+     */
+    public interface RendererFactory {
+
+        /**
+         * Returns a new renderer, must not share formatters with the renderers
+         * returned before.
+         * 
+         * @return
+         */
+        public HeadlessBarRenderer create();
+    }
+
+    private ForkJoinPool mPool;
+
+    private ThreadLocal<HeadlessBarRenderer> mRenderers;
+
+    /**
+     * Creates a batch renderer on the common pool that renders with default
+     * styling at a density of 1.
+     */
+    public BarBatchRenderer() {
+        this(new RendererFactory() {
+
+            @Override
+            public HeadlessBarRenderer create() {
+                return new HeadlessBarRenderer();
+            }
+        });
+    }
+
+    /**
+     * Creates a batch renderer on the common pool.
+     * 
+     * @param factory
+     */
+    public BarBatchRenderer(RendererFactory factory) {
+        this(ForkJoinPool.commonPool(), factory);
+    }
+
+    /**
+     * @param pool the pool the bars are rendered on
+     * @param factory
+     */
+    public BarBatchRenderer(ForkJoinPool pool, final RendererFactory factory) {
+
+        mPool = pool;
+        mRenderers = new ThreadLocal<HeadlessBarRenderer>() {
+
+            @Override
+            protected HeadlessBarRenderer initialValue() {
+                return factory.create();
+            }
+        };
+    }
+
+    /**
+     * Renders all bars and returns their PNGs in the order of the specs.
+     * 
+     * @param specs
+     * @return
+     * @throws IOException
+     */
+    public List<byte[]> renderPng(List<BarSpec> specs) throws IOException {
+
+        final byte[][] pngs = new byte[specs.size()][];
+
+        run(specs, new Output() {
+
+            @Override
+            public void write(int index, BarSpec spec, HeadlessBarRenderer r)
+                    throws IOException {
+                pngs[index] = r.renderPng(spec);
+            }
+        });
+
+        return Arrays.asList(pngs);
+    }
+
+    /**
+     * Renders all bars into the given directory, one file per bar named after
+     * the bar with the extension ".png". Existing files are replaced.
+     * 
+     * @param specs
+     * @param directory
+     * @throws IOException
+     */
+    public void renderPng(List<BarSpec> specs, final File directory) throws IOException {
+
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Could not create directory " + directory + ".");
+
+        run(specs, new Output() {
+
+            @Override
+            public void write(int index, BarSpec spec, HeadlessBarRenderer r)
+                    throws IOException {
+
+                OutputStream out = new FileOutputStream(
+                        new File(directory, spec.getName() + ".png"));
+
+                try {
+                    r.renderPng(spec, out);
+                } finally {
+                    out.close();
+                }
+            }
+        });
+    }
+
+    private void run(List<BarSpec> specs, Output output) throws IOException {
+
+        try {
+            mPool.invoke(new RenderTask(specs, 0, specs.size(), output));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Receives every rendered bar on the thread that rendered it.
+     */
+    private interface Output {
+
+        public void write(int index, BarSpec spec, HeadlessBarRenderer r) throws IOException;
+    }
+
+    /**
+     * Renders a range of the specs, splits itself in halves as long as the
+     * range is large enough.
+     */
+    private class RenderTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private List<BarSpec> mSpecs;
+        private int mFrom, mTo;
+        private Output mOutput;
+
+        RenderTask(List<BarSpec> specs, int from, int to, Output output) {
+            mSpecs = specs;
+            mFrom = from;
+            mTo = to;
+            mOutput = output;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (mTo - mFrom > SPLIT_THRESHOLD) {
+
+                int mid = (mFrom + mTo) >>> 1;
+
+                invokeAll(new RenderTask(mSpecs, mFrom, mid, mOutput),
+                        new RenderTask(mSpecs, mid, mTo, mOutput));
+                return;
+            }
+
+            HeadlessBarRenderer r = mRenderers.get();
+
+            try {
+                for (int i = mFrom; i < mTo; i++)
+                    mOutput.write(i, mSpecs.get(i), r);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
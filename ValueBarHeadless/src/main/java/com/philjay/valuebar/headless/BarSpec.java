@@ -0,0 +1,66 @@
+
+package com.philjay.valuebar.headless;
+
+/**
+ * Describes a single bar to render: its name, size in pixels, range and
+ * value. Immutable, can be shared between threads.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class BarSpec {
+
+    private final String mName;
+
+    private final int mWidth;
+    private final int mHeight;
+
+    private final float mMinVal;
+    private final float mMaxVal;
+    private final float mValue;
+
+    /**
+     * @param name the name of the bar, used as file name (without extension)
+     *            when rendering to a directory
+     * @param width the width of the image in pixels
+     * @param height the height of the image in pixels
+     * @param min
+     * @param max
+     * @param value
+     */
+    public BarSpec(String name, int width, int height, float min, float max, float value) {
+
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Width and height must be greater than 0.");
+
+        mName = name;
+        mWidth = width;
+        mHeight = height;
+        mMinVal = min;
+        mMaxVal = max;
+        mValue = value;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public float getMin() {
+        return mMinVal;
+    }
+
+    public float getMax() {
+        return mMaxVal;
+    }
+
+    public float getValue() {
+        return mValue;
+    }
+}
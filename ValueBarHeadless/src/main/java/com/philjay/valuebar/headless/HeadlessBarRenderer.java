@@ -0,0 +1,235 @@
+
+package com.philjay.valuebar.headless;
+
+import com.philjay.valuebar.ValueTextFormatter;
+import com.philjay.valuebar.core.BarPainter;
+import com.philjay.valuebar.scale.LinearScaleMapper;
+import com.philjay.valuebar.scale.ScaleMapper;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Renders bars into images with the same formatters, colors and label layout
+ * as the Android ValueBar, without Android or a display. The image buffer, the
+ * PNG encoder and the output buffer are reused for every bar. Not thread-safe,
+ * use one renderer per thread (see BarBatchRenderer).
+ * 
+ * <pre>
+ * HeadlessBarRenderer r = new HeadlessBarRenderer(2f);
+ * r.getPainter().setColorFormatter(new RedToGreenFormatter());
+ * byte[] png = r.renderPng(new BarSpec(&quot;cpu&quot;, 600, 80, 0, 100, 42));
+ * </pre>
+ * 
+ * @author Philipp Jahoda
+ */
+public class HeadlessBarRenderer {
+
+    private BarPainter mPainter;
+    private Java2DBarCanvas mCanvas;
+
+    private ScaleMapper mScaleMapper = new LinearScaleMapper();
+
+    /** the background of the images, transparent by default */
+    private Color mBackground = new Color(0, true);
+
+    /** reused as long as the bars fit into it */
+    private BufferedImage mImage;
+    private Graphics2D mGraphics;
+
+    private ImageWriter mPngWriter;
+    private ByteArrayOutputStream mPngBuffer = new ByteArrayOutputStream(8192);
+
+    /**
+     * Creates a renderer for a density of 1 (1dp = 1px).
+     */
+    public HeadlessBarRenderer() {
+        this(1f);
+    }
+
+    /**
+     * @param density the number of pixels per dp, scales texts and border
+     */
+    public HeadlessBarRenderer(float density) {
+        mPainter = new BarPainter();
+        mCanvas = new Java2DBarCanvas(density);
+    }
+
+    /**
+     * Renders the given bar. The returned image is backed by the buffer of the
+     * renderer and only valid until the next call.
+     * 
+     * @param spec
+     * @return
+     */
+    public BufferedImage render(BarSpec spec) {
+
+        int width = spec.getWidth();
+        int height = spec.getHeight();
+
+        prepareBuffer(width, height);
+
+        Graphics2D g = mGraphics;
+
+        g.setClip(null);
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(mBackground);
+        g.fillRect(0, 0, width, height);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setClip(0, 0, width, height);
+
+        mCanvas.setGraphics(g);
+
+        float min = spec.getMin();
+        float max = spec.getMax();
+        float value = spec.getValue();
+
+        ValueTextFormatter formatter = mPainter.getValueTextFormatter();
+
+        mPainter.draw(mCanvas, mCanvas, width, height, getBarLength(value, min, max, width),
+                value, min, max, formatter.getMinVal(min), formatter.getMaxVal(max));
+
+        if (mImage.getWidth() == width && mImage.getHeight() == height)
+            return mImage;
+
+        return mImage.getSubimage(0, 0, width, height);
+    }
+
+    /**
+     * Renders the given bar and encodes it as PNG.
+     * 
+     * @param spec
+     * @return
+     * @throws IOException
+     */
+    public byte[] renderPng(BarSpec spec) throws IOException {
+
+        mPngBuffer.reset();
+        renderPng(spec, mPngBuffer);
+        return mPngBuffer.toByteArray();
+    }
+
+    /**
+     * Renders the given bar and writes it as PNG to the given stream. The
+     * stream is not closed.
+     * 
+     * @param spec
+     * @param out
+     * @throws IOException
+     */
+    public void renderPng(BarSpec spec, OutputStream out) throws IOException {
+
+        BufferedImage image = render(spec);
+
+        if (mPngWriter == null)
+            mPngWriter = ImageIO.getImageWritersByFormatName("png").next();
+
+        // cache in memory, ImageIO would use temporary files by default
+        ImageOutputStream ios = new MemoryCacheImageOutputStream(out);
+
+        try {
+            mPngWriter.setOutput(ios);
+            mPngWriter.write(image);
+        } finally {
+            mPngWriter.setOutput(null);
+            ios.close();
+        }
+    }
+
+    /**
+     * Returns the length of the bar in pixels for the given value.
+     * 
+     * @param value
+     * @param min
+     * @param max
+     * @param width
+     * @return
+     */
+    private float getBarLength(float value, float min, float max, float width) {
+
+        // an empty range would divide by zero
+        if (max <= min)
+            return value >= max ? width : 0f;
+
+        mScaleMapper.prepare(min, max, width);
+        return mScaleMapper.getPosition(value);
+    }
+
+    /**
+     * Makes sure the image buffer is at least of the given size, it only
+     * grows.
+     * 
+     * @param width
+     * @param height
+     */
+    private void prepareBuffer(int width, int height) {
+
+        if (mImage != null && mImage.getWidth() >= width && mImage.getHeight() >= height)
+            return;
+
+        if (mImage != null) {
+            width = Math.max(width, mImage.getWidth());
+            height = Math.max(height, mImage.getHeight());
+            mGraphics.dispose();
+        }
+
+        mImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        mGraphics = mImage.createGraphics();
+    }
+
+    /**
+     * Returns the painter holding the formatters and drawing flags.
+     * 
+     * @return
+     */
+    public BarPainter getPainter() {
+        return mPainter;
+    }
+
+    /**
+     * Returns the canvas holding fonts and colors of texts, border and
+     * overlay.
+     * 
+     * @return
+     */
+    public Java2DBarCanvas getCanvas() {
+        return mCanvas;
+    }
+
+    /**
+     * Sets the mapper of values to pixel positions, null resets to linear
+     * mapping.
+     * 
+     * @param mapper
+     */
+    public void setScaleMapper(ScaleMapper mapper) {
+
+        if (mapper == null)
+            mapper = new LinearScaleMapper();
+
+        mScaleMapper = mapper;
+    }
+
+    public ScaleMapper getScaleMapper() {
+        return mScaleMapper;
+    }
+
+    /**
+     * Sets the background color of the images (ARGB), transparent by default.
+     * 
+     * @param color
+     */
+    public void setBackgroundColor(int color) {
+        mBackground = new Color(color, true);
+    }
+}
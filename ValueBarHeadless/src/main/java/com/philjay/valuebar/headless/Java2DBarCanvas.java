@@ -0,0 +1,331 @@
+
+package com.philjay.valuebar.headless;
+
+import com.philjay.valuebar.colors.ColorUtils;
+import com.philjay.valuebar.core.BarCanvas;
+import com.philjay.valuebar.core.TextMeasurer;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Java2D backend of the BarPainter, draws into a Graphics2D and measures texts
+ * with AWT fonts. Uses the same default styling as the Android ValueBar: 18dp
+ * white texts, a 2dp border and a translucent white overlay. Works without a
+ * display (java.awt.headless=true).
+ * 
+ * @author Philipp Jahoda
+ */
+public class Java2DBarCanvas implements BarCanvas, TextMeasurer {
+
+    /** the characters measured for the height of all texts */
+    private static final String HEIGHT_REFERENCE = "0123456789";
+
+    private float mDensity;
+
+    private Graphics2D mGraphics;
+
+    private Font mValueTextFont;
+    private Font mMinMaxTextFont;
+
+    private FontMetrics mValueTextMetrics;
+    private FontMetrics mMinMaxTextMetrics;
+
+    private float mValueTextHeight;
+    private float mMinMaxTextHeight;
+
+    private int mValueTextColor = ColorUtils.WHITE;
+    private int mMinMaxTextColor = ColorUtils.WHITE;
+    private int mOverlayColor = ColorUtils.argb(120, 255, 255, 255);
+    private int mBorderColor = ColorUtils.argb(255, 0, 0, 0);
+
+    private BasicStroke mBorderStroke;
+
+    /** the last color set on the graphics, reused as long as it is the same */
+    private Color mColor;
+
+    /** the gradient of the gradient fill, reused while colors and width are the same */
+    private LinearGradientPaint mGradient;
+
+    /** the colors mGradient was created for */
+    private int[] mGradientColors;
+
+    /** the track width mGradient was created for */
+    private float mGradientWidth;
+
+    /** reused for every rectangle that is drawn */
+    private Rectangle2D.Float mRect = new Rectangle2D.Float();
+
+    /** graphics only used for measuring texts */
+    private Graphics2D mMeasureGraphics;
+
+    /**
+     * Creates a canvas for a density of 1 (1dp = 1px).
+     */
+    public Java2DBarCanvas() {
+        this(1f);
+    }
+
+    /**
+     * @param density the number of pixels per dp
+     */
+    public Java2DBarCanvas(float density) {
+
+        mDensity = density;
+
+        mMeasureGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        setupGraphics(mMeasureGraphics);
+
+        Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 1).deriveFont(18f * density);
+        setValueTextFont(font);
+        setMinMaxTextFont(font);
+        setBorderWidth(2f);
+    }
+
+    /**
+     * Sets the graphics subsequent calls draw into.
+     * 
+     * @param g
+     */
+    void setGraphics(Graphics2D g) {
+
+        mGraphics = g;
+        mColor = null;
+
+        setupGraphics(g);
+        g.setStroke(mBorderStroke);
+    }
+
+    private static void setupGraphics(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+    }
+
+    @Override
+    public void drawBar(float left, float top, float right, float bottom, int color) {
+
+        setColor(color);
+        mRect.setRect(left, top, right - left, bottom - top);
+        mGraphics.fill(mRect);
+    }
+
+    @Override
+    public void drawGradientBar(float left, float top, float right, float bottom,
+            float trackWidth, int[] colors) {
+
+        if (colors != mGradientColors || trackWidth != mGradientWidth) {
+
+            float[] fractions = new float[colors.length];
+            Color[] awtColors = new Color[colors.length];
+
+            for (int i = 0; i < colors.length; i++) {
+                fractions[i] = i / (float) (colors.length - 1);
+                awtColors[i] = new Color(colors[i], true);
+            }
+
+            // start and end of the gradient must not be the same point
+            mGradient = new LinearGradientPaint(0, 0, Math.max(trackWidth, 1f), 0, fractions,
+                    awtColors);
+            mGradientColors = colors;
+            mGradientWidth = trackWidth;
+        }
+
+        mGraphics.setPaint(mGradient);
+        mColor = null;
+
+        mRect.setRect(left, top, right - left, bottom - top);
+        mGraphics.fill(mRect);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int style) {
+
+        mRect.setRect(left, top, right - left, bottom - top);
+
+        if (style == STYLE_BORDER) {
+            setColor(mBorderColor);
+            mGraphics.draw(mRect);
+        } else {
+            setColor(mOverlayColor);
+            mGraphics.fill(mRect);
+        }
+    }
+
+    @Override
+    public void drawTextVertical(String text, float x, float y, int style) {
+
+        prepareText(x, y, style);
+        mGraphics.drawString(text, 0f, 0f);
+        finishText(x, y);
+    }
+
+    @Override
+    public void drawTextVertical(char[] text, int start, int count, float x, float y,
+            int style) {
+
+        prepareText(x, y, style);
+        mGraphics.drawChars(text, start, count, 0, 0);
+        finishText(x, y);
+    }
+
+    /**
+     * Rotates the graphics by 270 degrees around the given position, which
+     * becomes the origin, and sets font and color of the given style.
+     * 
+     * @param x
+     * @param y
+     * @param style
+     */
+    private void prepareText(float x, float y, int style) {
+
+        if (style == STYLE_VALUE_TEXT) {
+            mGraphics.setFont(mValueTextFont);
+            setColor(mValueTextColor);
+        } else {
+            mGraphics.setFont(mMinMaxTextFont);
+            setColor(mMinMaxTextColor);
+        }
+
+        mGraphics.translate(x, y);
+        mGraphics.rotate(-Math.PI / 2.0);
+    }
+
+    /**
+     * Reverts prepareText(...) without allocating a copy of the transform.
+     * 
+     * @param x
+     * @param y
+     */
+    private void finishText(float x, float y) {
+        mGraphics.rotate(Math.PI / 2.0);
+        mGraphics.translate(-x, -y);
+    }
+
+    private void setColor(int color) {
+
+        if (mColor == null || mColor.getRGB() != color) {
+            mColor = new Color(color, true);
+            mGraphics.setColor(mColor);
+        }
+    }
+
+    @Override
+    public float getTextWidth(String text, int style) {
+        return getMetrics(style).stringWidth(text);
+    }
+
+    @Override
+    public float getTextWidth(char[] text, int start, int count, int style) {
+        return getMetrics(style).charsWidth(text, start, count);
+    }
+
+    /**
+     * Returns the height of the digits of the font of the given style, used
+     * for all texts since the bars display numbers.
+     */
+    @Override
+    public float getTextHeight(String text, int style) {
+        return style == STYLE_VALUE_TEXT ? mValueTextHeight : mMinMaxTextHeight;
+    }
+
+    @Override
+    public float getTextHeight(char[] text, int start, int count, int style) {
+        return style == STYLE_VALUE_TEXT ? mValueTextHeight : mMinMaxTextHeight;
+    }
+
+    private FontMetrics getMetrics(int style) {
+        return style == STYLE_VALUE_TEXT ? mValueTextMetrics : mMinMaxTextMetrics;
+    }
+
+    /**
+     * Returns the height of the reference characters drawn with the given
+     * font.
+     * 
+     * @param font
+     * @return
+     */
+    private float measureHeight(Font font) {
+
+        FontRenderContext frc = mMeasureGraphics.getFontRenderContext();
+        return (float) font.createGlyphVector(frc, HEIGHT_REFERENCE).getVisualBounds()
+                .getHeight();
+    }
+
+    public void setValueTextFont(Font font) {
+        mValueTextFont = font;
+        mValueTextMetrics = mMeasureGraphics.getFontMetrics(font);
+        mValueTextHeight = measureHeight(font);
+    }
+
+    public Font getValueTextFont() {
+        return mValueTextFont;
+    }
+
+    public void setMinMaxTextFont(Font font) {
+        mMinMaxTextFont = font;
+        mMinMaxTextMetrics = mMeasureGraphics.getFontMetrics(font);
+        mMinMaxTextHeight = measureHeight(font);
+    }
+
+    public Font getMinMaxTextFont() {
+        return mMinMaxTextFont;
+    }
+
+    /**
+     * Sets the size of the value-text in dp.
+     * 
+     * @param size
+     */
+    public void setValueTextSize(float size) {
+        setValueTextFont(mValueTextFont.deriveFont(size * mDensity));
+    }
+
+    /**
+     * Sets the size of the minimum and maximum labels in dp.
+     * 
+     * @param size
+     */
+    public void setMinMaxTextSize(float size) {
+        setMinMaxTextFont(mMinMaxTextFont.deriveFont(size * mDensity));
+    }
+
+    /**
+     * Sets the width of the border in dp.
+     * 
+     * @param width
+     */
+    public void setBorderWidth(float width) {
+        mBorderStroke = new BasicStroke(width * mDensity);
+    }
+
+    public void setValueTextColor(int color) {
+        mValueTextColor = color;
+    }
+
+    public void setMinMaxTextColor(int color) {
+        mMinMaxTextColor = color;
+    }
+
+    public void setOverlayColor(int color) {
+        mOverlayColor = color;
+    }
+
+    public void setBorderColor(int color) {
+        mBorderColor = color;
+    }
+
+    public float getDensity() {
+        return mDensity;
+    }
+}
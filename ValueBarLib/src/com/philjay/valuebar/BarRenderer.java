@@ -0,0 +1,651 @@
+
+package com.philjay.valuebar;
+
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.core.BarCanvas;
+import com.philjay.valuebar.core.BarLayout;
+import com.philjay.valuebar.core.BarPainter;
+import com.philjay.valuebar.core.TextMeasurer;
+import com.philjay.valuebar.metrics.ValueBarMetrics;
+
+/**
+ * Android backend of the BarPainter, draws a single bar with its labels into
+ * an area starting at (0, 0) of the canvas. Holds the paints, text caches and
+ * the glyph atlas, and is shared by ValueBar (one bar per view) and
+ * ValueBarGroup (many bars per view). Sizes in density pixels are converted
+ * with the density of the view, not with global metrics.
+ * 
+ * @author Philipp Jahoda
+ */
+class BarRenderer implements BarCanvas, TextMeasurer {
+
+    /** the color of the bar if no other color or formatter is set */
+    static final int DEFAULT_COLOR = BarPainter.DEFAULT_COLOR;
+
+    private Paint mBarPaint;
+    private Paint mBorderPaint;
+    private Paint mValueTextPaint;
+    private Paint mMinMaxTextPaint;
+    private Paint mOverlayPaint;
+
+    /** paint of the gradient fill, holds the gradient as shader */
+    private Paint mGradientPaint;
+
+    /** the colors the shader of mGradientPaint was created for */
+    private int[] mGradientColors;
+
+    /** the track width the shader of mGradientPaint was created for */
+    private float mGradientWidth;
+
+    /** holds formatters and flags and computes the layout */
+    private BarPainter mPainter;
+
+    /** cached measurements of texts drawn with the value-text paint */
+    private TextMetricsCache mValueTextMetrics;
+
+    /** cached measurements of texts drawn with the min-max text paint */
+    private TextMetricsCache mMinMaxTextMetrics;
+
+    /** atlas of rotated glyphs for the value-text, null if disabled */
+    private GlyphAtlas mValueTextAtlas;
+
+    /** the number of pixels per density pixel of the view */
+    private float mDensity;
+
+    /** the canvas of the current draw call */
+    private Canvas mCanvas;
+
+    /**
+     * @param metricsCapacity the number of different texts of which the
+     *            measurements are cached
+     * @param density the number of pixels per density pixel of the view
+     */
+    public BarRenderer(int metricsCapacity, float density) {
+
+        mDensity = density;
+
+        mBarPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBarPaint.setStyle(Paint.Style.FILL);
+
+        mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mBorderPaint.setStyle(Paint.Style.STROKE);
+        mBorderPaint.setStrokeWidth(convertDpToPixel(2f));
+
+        mValueTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mValueTextPaint.setColor(Color.WHITE);
+        mValueTextPaint.setTextSize(convertDpToPixel(18f));
+
+        mMinMaxTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mMinMaxTextPaint.setColor(Color.WHITE);
+        mMinMaxTextPaint.setTextSize(convertDpToPixel(18f));
+
+        mOverlayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mOverlayPaint.setStyle(Paint.Style.FILL);
+        mOverlayPaint.setColor(Color.WHITE);
+        mOverlayPaint.setAlpha(120);
+
+        mGradientPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mGradientPaint.setStyle(Paint.Style.FILL);
+
+        mPainter = new BarPainter();
+
+        mValueTextMetrics = new TextMetricsCache(mValueTextPaint, metricsCapacity);
+        mMinMaxTextMetrics = new TextMetricsCache(mMinMaxTextPaint, metricsCapacity);
+    }
+
+    /**
+     * Applies the attributes of the ValueBarStyle styleable, dimensions are
+     * already resolved to pixels for the configuration of the view.
+     * 
+     * @param a
+     */
+    public void applyStyle(TypedArray a) {
+
+        if (a.hasValue(R.styleable.ValueBarStyle_vb_color))
+            setColor(a.getColor(R.styleable.ValueBarStyle_vb_color, DEFAULT_COLOR));
+
+        setDrawBorder(a.getBoolean(R.styleable.ValueBarStyle_vb_drawBorder,
+                isDrawBorderEnabled()));
+        mBorderPaint.setStrokeWidth(a.getDimension(R.styleable.ValueBarStyle_vb_borderWidth,
+                mBorderPaint.getStrokeWidth()));
+        mBorderPaint.setColor(a.getColor(R.styleable.ValueBarStyle_vb_borderColor,
+                mBorderPaint.getColor()));
+
+        setDrawValueText(a.getBoolean(R.styleable.ValueBarStyle_vb_drawValueText,
+                isDrawValueTextEnabled()));
+        setDrawMinMaxText(a.getBoolean(R.styleable.ValueBarStyle_vb_drawMinMaxText,
+                isDrawMinMaxTextEnabled()));
+
+        mValueTextPaint.setTextSize(a.getDimension(R.styleable.ValueBarStyle_vb_valueTextSize,
+                mValueTextPaint.getTextSize()));
+        mValueTextPaint.setColor(a.getColor(R.styleable.ValueBarStyle_vb_valueTextColor,
+                mValueTextPaint.getColor()));
+        mMinMaxTextPaint.setTextSize(a.getDimension(R.styleable.ValueBarStyle_vb_minMaxTextSize,
+                mMinMaxTextPaint.getTextSize()));
+        mMinMaxTextPaint.setColor(a.getColor(R.styleable.ValueBarStyle_vb_minMaxTextColor,
+                mMinMaxTextPaint.getColor()));
+
+        if (a.hasValue(R.styleable.ValueBarStyle_vb_overlayColor))
+            setOverlayColor(a.getColor(R.styleable.ValueBarStyle_vb_overlayColor, Color.WHITE));
+
+        if (a.hasValue(R.styleable.ValueBarStyle_vb_decimals))
+            setValueTextFormatter(new FixedDecimalFormatter(
+                    a.getInt(R.styleable.ValueBarStyle_vb_decimals, 2)));
+
+        setGlyphAtlasEnabled(a.getBoolean(R.styleable.ValueBarStyle_vb_glyphAtlasEnabled,
+                isGlyphAtlasEnabled()));
+    }
+
+    /**
+     * Sets the color of the overlay below the value-text, the alpha of the
+     * overlay is kept.
+     * 
+     * @param color
+     */
+    public void setOverlayColor(int color) {
+        int alpha = mOverlayPaint.getAlpha();
+        mOverlayPaint.setColor(color);
+        mOverlayPaint.setAlpha(alpha);
+    }
+
+    /**
+     * Updates the density (e.g. after the view moved to a display with a
+     * different density), all sizes are scaled accordingly.
+     * 
+     * @param density the number of pixels per density pixel of the view
+     */
+    public void setDensity(float density) {
+
+        if (density == mDensity || density <= 0f)
+            return;
+
+        float scale = density / mDensity;
+        mDensity = density;
+
+        mBorderPaint.setStrokeWidth(mBorderPaint.getStrokeWidth() * scale);
+        mValueTextPaint.setTextSize(mValueTextPaint.getTextSize() * scale);
+        mMinMaxTextPaint.setTextSize(mMinMaxTextPaint.getTextSize() * scale);
+    }
+
+    public float getDensity() {
+        return mDensity;
+    }
+
+    /**
+     * Converts the given density pixels into pixels of the view.
+     * 
+     * @param dp
+     * @return
+     */
+    public float convertDpToPixel(float dp) {
+        return dp * mDensity;
+    }
+
+    /**
+     * Returns true if the minimum label needs to be drawn for the given value.
+     * 
+     * @param value
+     * @param min
+     * @return
+     */
+    public boolean isMinLabelVisible(float value, float min) {
+        return mPainter.isMinLabelVisible(value, min);
+    }
+
+    /**
+     * Returns true if the value-text needs to be drawn for the given value.
+     * 
+     * @param value
+     * @param min
+     * @return
+     */
+    public boolean isValueTextVisible(float value, float min) {
+        return mPainter.isValueTextVisible(value, min);
+    }
+
+    /**
+     * Draws the minimum and maximum labels.
+     * 
+     * @param canvas
+     * @param min the formatted minimum
+     * @param max the formatted maximum
+     * @param width
+     * @param height
+     * @param drawMin false to only draw the maximum label
+     */
+    public void drawMinMaxText(Canvas canvas, String min, String max, float width,
+            float height, boolean drawMin) {
+
+        mCanvas = canvas;
+        mPainter.drawMinMaxText(this, this, min, max, width, height, drawMin);
+        mCanvas = null;
+    }
+
+    /**
+     * Computes the positions of the minimum and maximum labels without drawing
+     * them.
+     * 
+     * @param min the formatted minimum
+     * @param max the formatted maximum
+     * @param width
+     * @param height
+     * @return the layout holding the label positions
+     */
+    public BarLayout layoutMinMaxText(String min, String max, float width, float height) {
+
+        mPainter.layoutMinMaxText(this, min, max, width, height);
+        return mPainter.getLayout();
+    }
+
+    /**
+     * Measures the size the bar needs to display its texts.
+     * 
+     * @param min
+     * @param max
+     * @param minText the formatted minimum
+     * @param maxText the formatted maximum
+     * @return the layout holding the intrinsic size
+     */
+    public BarLayout measureIntrinsicSize(float min, float max, String minText, String maxText) {
+
+        mPainter.measureIntrinsicSize(this, min, max, minText, maxText);
+        return mPainter.getLayout();
+    }
+
+    /**
+     * Returns the width of the given text drawn with the min-max paint.
+     * 
+     * @param text
+     * @return
+     */
+    public float getMinMaxTextWidth(String text) {
+        return mMinMaxTextMetrics.getWidth(text);
+    }
+
+    /**
+     * Draws the bar itself in the color provided by the color formatter.
+     * 
+     * @param canvas
+     * @param width the width of the whole bar
+     * @param bar
+     * @param value
+     * @param min
+     * @param max
+     */
+    public void drawBar(Canvas canvas, float width, RectF bar, float value, float min,
+            float max) {
+
+        mCanvas = canvas;
+        mPainter.drawBar(this, width, bar.right, bar.bottom, value, min, max);
+        mCanvas = null;
+    }
+
+    /**
+     * Draws the border around the bar if enabled.
+     * 
+     * @param canvas
+     * @param width
+     * @param height
+     */
+    public void drawBorder(Canvas canvas, float width, float height) {
+
+        mCanvas = canvas;
+        mPainter.drawBorder(this, width, height);
+        mCanvas = null;
+    }
+
+    /**
+     * Draws the value-text and the overlay below it at the end of the bar.
+     * Afterwards, getOverlayLeft(), getLabelRight() and getTextHeight()
+     * describe the area that has been drawn.
+     * 
+     * @param canvas
+     * @param bar
+     * @param height
+     * @param value
+     * @param min
+     * @param max
+     * @return false if nothing was drawn
+     */
+    public boolean drawValueText(Canvas canvas, RectF bar, float height, float value, float min,
+            float max) {
+
+        mCanvas = canvas;
+        boolean drawn = mPainter.drawValueText(this, this, bar.right, height, value, min, max);
+        mCanvas = null;
+
+        return drawn;
+    }
+
+    /**
+     * Returns the left edge of the overlay drawn in the last
+     * drawValueText(...) call.
+     * 
+     * @return
+     */
+    public float getOverlayLeft() {
+        return mPainter.getLayout().getOverlayLeft();
+    }
+
+    /**
+     * Returns the right edge of the value-text drawn in the last
+     * drawValueText(...) call.
+     * 
+     * @return
+     */
+    public float getLabelRight() {
+        return mPainter.getLayout().getLabelRight();
+    }
+
+    /**
+     * Returns the (scaled) height of the value-text drawn in the last
+     * drawValueText(...) call.
+     * 
+     * @return
+     */
+    public float getTextHeight() {
+        return mPainter.getLayout().getTextHeight();
+    }
+
+    @Override
+    public void drawBar(float left, float top, float right, float bottom, int color) {
+
+        mBarPaint.setColor(color);
+        mCanvas.drawRect(left, top, right, bottom, mBarPaint);
+    }
+
+    @Override
+    public void drawGradientBar(float left, float top, float right, float bottom,
+            float trackWidth, int[] colors) {
+
+        // the shader only depends on the track, not on the value
+        if (colors != mGradientColors || trackWidth != mGradientWidth) {
+            mGradientPaint.setShader(new LinearGradient(0, 0, trackWidth, 0, colors, null,
+                    Shader.TileMode.CLAMP));
+            mGradientColors = colors;
+            mGradientWidth = trackWidth;
+        }
+
+        mCanvas.drawRect(left, top, right, bottom, mGradientPaint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int style) {
+        mCanvas.drawRect(left, top, right, bottom, getPaint(style));
+    }
+
+    @Override
+    public void drawTextVertical(String text, float x, float y, int style) {
+
+        Paint p = getPaint(style);
+
+        // only the value-text changes often enough to be worth the atlas
+        if (style == STYLE_VALUE_TEXT && mValueTextAtlas != null
+                && mValueTextAtlas.drawTextVertical(mCanvas, text, x, y, p))
+            return;
+
+        mCanvas.save();
+
+        mCanvas.rotate(270, x, y);
+        mCanvas.drawText(text,
+                x,
+                y,
+                p);
+        mCanvas.restore();
+    }
+
+    @Override
+    public void drawTextVertical(char[] text, int start, int count, float x, float y,
+            int style) {
+
+        Paint p = getPaint(style);
+
+        if (style == STYLE_VALUE_TEXT && mValueTextAtlas != null
+                && mValueTextAtlas.drawTextVertical(mCanvas, text, start, count, x, y, p))
+            return;
+
+        mCanvas.save();
+
+        mCanvas.rotate(270, x, y);
+        mCanvas.drawText(text, start, count,
+                x,
+                y,
+                p);
+        mCanvas.restore();
+    }
+
+    @Override
+    public float getTextWidth(String text, int style) {
+        return getTextMetrics(style).getWidth(text);
+    }
+
+    @Override
+    public float getTextWidth(char[] text, int start, int count, int style) {
+        return getTextMetrics(style).getWidth(text, start, count);
+    }
+
+    @Override
+    public float getTextHeight(String text, int style) {
+        return getTextMetrics(style).getHeight(text);
+    }
+
+    @Override
+    public float getTextHeight(char[] text, int start, int count, int style) {
+        return getTextMetrics(style).getHeight(text, start, count);
+    }
+
+    /**
+     * Returns the paint for the given BarCanvas style.
+     * 
+     * @param style
+     * @return
+     */
+    private Paint getPaint(int style) {
+
+        switch (style) {
+            case STYLE_BAR:
+                return mBarPaint;
+            case STYLE_BORDER:
+                return mBorderPaint;
+            case STYLE_OVERLAY:
+                return mOverlayPaint;
+            case STYLE_VALUE_TEXT:
+                return mValueTextPaint;
+            default:
+                return mMinMaxTextPaint;
+        }
+    }
+
+    /**
+     * Grows the caches of the text measurements to hold at least the given
+     * number of different texts of each style.
+     * 
+     * @param capacity
+     */
+    public void ensureMetricsCapacity(int capacity) {
+        mValueTextMetrics.ensureCapacity(capacity);
+        mMinMaxTextMetrics.ensureCapacity(capacity);
+    }
+
+    /**
+     * Returns the text cache for the given BarCanvas text style.
+     * 
+     * @param style
+     * @return
+     */
+    private TextMetricsCache getTextMetrics(int style) {
+        return style == STYLE_VALUE_TEXT ? mValueTextMetrics : mMinMaxTextMetrics;
+    }
+
+    /**
+     * Sets the formatter for the value-text, null resets to the default
+     * formatter.
+     * 
+     * @param formatter
+     */
+    public void setValueTextFormatter(ValueTextFormatter formatter) {
+        mPainter.setValueTextFormatter(formatter);
+    }
+
+    public ValueTextFormatter getValueTextFormatter() {
+        return mPainter.getValueTextFormatter();
+    }
+
+    /**
+     * Returns true if the default value-text formatter is used.
+     * 
+     * @return
+     */
+    public boolean isDefaultValueTextFormatter() {
+        return mPainter.isDefaultValueTextFormatter();
+    }
+
+    /**
+     * Sets the formatter for the color of the bar, null resets to the default
+     * color.
+     * 
+     * @param formatter
+     */
+    public void setColorFormatter(BarColorFormatter formatter) {
+        mPainter.setColorFormatter(formatter);
+    }
+
+    public BarColorFormatter getColorFormatter() {
+        return mPainter.getColorFormatter();
+    }
+
+    /**
+     * Fills the bar with a gradient of the given colors spanning the whole
+     * width instead of a color from the color formatter, null to disable.
+     * 
+     * @param colors
+     */
+    public void setGradientFill(int[] colors) {
+        mPainter.setGradientFill(colors);
+    }
+
+    public int[] getGradientFill() {
+        return mPainter.getGradientFill();
+    }
+
+    /**
+     * Returns the color the color formatter provides for the given value.
+     * 
+     * @param value
+     * @param min
+     * @param max
+     * @return
+     */
+    public int getBarColor(float value, float min, float max) {
+        return mPainter.getBarColor(value, min, max);
+    }
+
+    /**
+     * Returns the fill color of the last bar drawn with the color formatter.
+     * 
+     * @return
+     */
+    public int getDrawnBarColor() {
+        return mPainter.getDrawnBarColor();
+    }
+
+    /**
+     * Colors the bar in a single color.
+     * 
+     * @param color
+     */
+    public void setColor(int color) {
+        mPainter.setColor(color);
+    }
+
+    /**
+     * Enables or disables drawing the value-text from a glyph atlas.
+     * 
+     * @param enabled
+     */
+    public void setGlyphAtlasEnabled(boolean enabled) {
+
+        if (enabled) {
+            if (mValueTextAtlas == null)
+                mValueTextAtlas = new GlyphAtlas();
+        } else if (mValueTextAtlas != null) {
+            mValueTextAtlas.recycle();
+            mValueTextAtlas = null;
+        }
+    }
+
+    public boolean isGlyphAtlasEnabled() {
+        return mValueTextAtlas != null;
+    }
+
+    /**
+     * Releases the glyphs of the glyph atlas (if enabled), they are obtained
+     * again upon the next draw.
+     */
+    public void recycle() {
+
+        if (mValueTextAtlas != null)
+            mValueTextAtlas.recycle();
+    }
+
+    /**
+     * Sets the metrics that count the formatter calls, null to disable.
+     * 
+     * @param metrics
+     */
+    public void setMetrics(ValueBarMetrics metrics) {
+        mPainter.setMetrics(metrics);
+    }
+
+    public void setDrawBorder(boolean enabled) {
+        mPainter.setDrawBorder(enabled);
+    }
+
+    public boolean isDrawBorderEnabled() {
+        return mPainter.isDrawBorderEnabled();
+    }
+
+    public void setDrawValueText(boolean enabled) {
+        mPainter.setDrawValueText(enabled);
+    }
+
+    public boolean isDrawValueTextEnabled() {
+        return mPainter.isDrawValueTextEnabled();
+    }
+
+    public void setDrawMinMaxText(boolean enabled) {
+        mPainter.setDrawMinMaxText(enabled);
+    }
+
+    public boolean isDrawMinMaxTextEnabled() {
+        return mPainter.isDrawMinMaxTextEnabled();
+    }
+
+    public Paint getBarPaint() {
+        return mBarPaint;
+    }
+
+    public Paint getBorderPaint() {
+        return mBorderPaint;
+    }
+
+    public Paint getValueTextPaint() {
+        return mValueTextPaint;
+    }
+
+    public Paint getMinMaxTextPaint() {
+        return mMinMaxTextPaint;
+    }
+
+    public Paint getOverlayPaint() {
+        return mOverlayPaint;
+    }
+}
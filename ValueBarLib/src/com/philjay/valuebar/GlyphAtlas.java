@@ -0,0 +1,380 @@
+
+package com.philjay.valuebar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import com.philjay.valuebar.core.GlyphAtlasLayout;
+
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+
+/**
+ * Atlas of pre-rendered, vertically rotated glyphs for a small set of
+ * characters (by default digits, separators, signs and a few currency
+ * symbols). The glyphs are rendered once for the text-size and Typeface of a
+ * Paint into an alpha-only bitmap, texts that only consist of these characters
+ * are then drawn by blitting the glyphs instead of rotating the canvas and
+ * drawing the text. The glyphs are blitted at whole pixels, 1:1 and without
+ * filtering, so they look the same as drawn by Canvas.drawText(...). The
+ * bitmaps are shared by all atlases with the same characters and text style
+ * (Typeface, text-size in pixels, which includes the screen density, and
+ * scaling, skewing, bold and anti-alias settings), so views showing the same
+ * text style render the glyphs only once. An atlas switches to other glyphs
+ * automatically if the text style of the Paint changes.
+ * 
+ * @author Philipp Jahoda
+ */
+public class GlyphAtlas {
+
+    /** the characters contained in the atlas by default */
+    public static final String DEFAULT_GLYPHS = "0123456789.,:-+ %$\u20ac\u00a3'\u00a0";
+
+    /** the rendered glyphs in use, shared by all atlases */
+    private static final ArrayList<Glyphs> sGlyphs = new ArrayList<Glyphs>();
+
+    /** the characters contained in the atlas */
+    private String mGlyphs;
+
+    /** index of each ascii character in mGlyphs, -1 if not contained */
+    private int[] mAsciiIndex = new int[128];
+
+    /** the glyphs rendered for the text style of the paint, null if none */
+    private Glyphs mRendered;
+
+    /** paint used for drawing the glyphs from the atlas */
+    private Paint mBlitPaint = new Paint();
+
+    private Rect mSrc = new Rect();
+    private Rect mDst = new Rect();
+
+    /**
+     * Creates an atlas containing the DEFAULT_GLYPHS and the separators of the
+     * default locale.
+     */
+    public GlyphAtlas() {
+        this(DEFAULT_GLYPHS + getLocaleSymbols());
+    }
+
+    /**
+     * Creates an atlas containing the given characters.
+     * 
+     * @param glyphs
+     */
+    public GlyphAtlas(String glyphs) {
+
+        StringBuilder unique = new StringBuilder();
+
+        for (int i = 0; i < glyphs.length(); i++) {
+            char c = glyphs.charAt(i);
+            if (unique.indexOf(String.valueOf(c)) < 0)
+                unique.append(c);
+        }
+
+        mGlyphs = unique.toString();
+
+        for (int i = 0; i < mAsciiIndex.length; i++)
+            mAsciiIndex[i] = -1;
+
+        for (int i = 0; i < mGlyphs.length(); i++) {
+            char c = mGlyphs.charAt(i);
+            if (c < mAsciiIndex.length)
+                mAsciiIndex[c] = i;
+        }
+    }
+
+    /**
+     * Draws the given text vertically (rotated by 270 degrees) at the
+     * provided position, the same way as Canvas.drawText(...) on a canvas
+     * rotated around (x, y) would. Returns false without drawing anything if
+     * the text contains characters that are not part of the atlas or the
+     * paint is not left-aligned.
+     * 
+     * @param canvas
+     * @param text
+     * @param x
+     * @param y
+     * @param p
+     * @return
+     */
+    public boolean drawTextVertical(Canvas canvas, String text, float x, float y, Paint p) {
+
+        if (!prepare(p))
+            return false;
+
+        for (int i = 0; i < text.length(); i++) {
+            if (indexOf(text.charAt(i)) < 0)
+                return false;
+        }
+
+        float pen = 0f;
+
+        for (int i = 0; i < text.length(); i++)
+            pen += drawGlyph(canvas, indexOf(text.charAt(i)), x, y, pen);
+
+        return true;
+    }
+
+    /**
+     * Draws the given characters vertically (rotated by 270 degrees) at the
+     * provided position. Returns false without drawing anything if the text
+     * contains characters that are not part of the atlas or the paint is not
+     * left-aligned.
+     * 
+     * @param canvas
+     * @param text
+     * @param start
+     * @param count
+     * @param x
+     * @param y
+     * @param p
+     * @return
+     */
+    public boolean drawTextVertical(Canvas canvas, char[] text, int start, int count, float x,
+            float y, Paint p) {
+
+        if (!prepare(p))
+            return false;
+
+        for (int i = start; i < start + count; i++) {
+            if (indexOf(text[i]) < 0)
+                return false;
+        }
+
+        float pen = 0f;
+
+        for (int i = start; i < start + count; i++)
+            pen += drawGlyph(canvas, indexOf(text[i]), x, y, pen);
+
+        return true;
+    }
+
+    /**
+     * Releases the glyphs of the atlas, their bitmap is recycled once no
+     * other atlas uses it. The glyphs are obtained again upon the next draw.
+     */
+    public void recycle() {
+        release(mRendered);
+        mRendered = null;
+    }
+
+    /**
+     * Draws a single glyph from the atlas.
+     * 
+     * @param canvas
+     * @param glyph index of the glyph
+     * @param x
+     * @param y
+     * @param pen the advance of all glyphs drawn before
+     * @return the advance of the drawn glyph
+     */
+    private float drawGlyph(Canvas canvas, int glyph, float x, float y, float pen) {
+
+        GlyphAtlasLayout layout = mRendered.mLayout;
+
+        int left = layout.getCellLeft(glyph);
+        mSrc.set(left, 0, left + layout.getCellWidth(), layout.getCellHeight(glyph));
+
+        int dstLeft = layout.getCopyLeft(x);
+        int dstTop = layout.getCopyTop(glyph, y, pen);
+        mDst.set(dstLeft, dstTop, dstLeft + layout.getCellWidth(),
+                dstTop + layout.getCellHeight(glyph));
+
+        canvas.drawBitmap(mRendered.mBitmap, mSrc, mDst, mBlitPaint);
+
+        return layout.getAdvance(glyph);
+    }
+
+    /**
+     * Makes sure the glyphs are rendered for the text style of the given paint
+     * and takes over the color of the paint.
+     * 
+     * @param p
+     * @return false if the paint is not supported
+     */
+    private boolean prepare(Paint p) {
+
+        if (p.getTextAlign() != Paint.Align.LEFT)
+            return false;
+
+        if (mRendered == null || !mRendered.matches(mGlyphs, p)) {
+            Glyphs rendered = obtain(mGlyphs, p);
+            release(mRendered);
+            mRendered = rendered;
+        }
+
+        mBlitPaint.setColor(p.getColor());
+        return true;
+    }
+
+    /**
+     * Returns the shared glyphs for the given characters and text style of
+     * the paint, renders them if no atlas uses them yet.
+     * 
+     * @param glyphs
+     * @param p
+     * @return
+     */
+    private static Glyphs obtain(String glyphs, Paint p) {
+
+        synchronized (sGlyphs) {
+
+            for (int i = 0; i < sGlyphs.size(); i++) {
+
+                Glyphs rendered = sGlyphs.get(i);
+
+                if (rendered.matches(glyphs, p)) {
+                    rendered.mUsers++;
+                    return rendered;
+                }
+            }
+
+            Glyphs rendered = new Glyphs(glyphs, p);
+            sGlyphs.add(rendered);
+            return rendered;
+        }
+    }
+
+    /**
+     * Gives up one use of the given shared glyphs (may be null), recycles
+     * their bitmap if no atlas uses them anymore.
+     * 
+     * @param rendered
+     */
+    private static void release(Glyphs rendered) {
+
+        if (rendered == null)
+            return;
+
+        synchronized (sGlyphs) {
+
+            if (--rendered.mUsers > 0)
+                return;
+
+            sGlyphs.remove(rendered);
+            rendered.mBitmap.recycle();
+        }
+    }
+
+    /**
+     * Returns the index of the given character in the atlas, -1 if it is not
+     * contained.
+     * 
+     * @param c
+     * @return
+     */
+    private int indexOf(char c) {
+
+        if (c < mAsciiIndex.length)
+            return mAsciiIndex[c];
+
+        return mGlyphs.indexOf(c);
+    }
+
+    /**
+     * Returns the decimal separator, grouping separator and minus sign of the
+     * default locale.
+     * 
+     * @return
+     */
+    private static String getLocaleSymbols() {
+
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+
+        return new String(new char[] {
+                symbols.getDecimalSeparator(), symbols.getGroupingSeparator(),
+                symbols.getMinusSign()
+        });
+    }
+
+    /**
+     * Glyphs rendered rotated by 270 degrees into an alpha-only bitmap, each
+     * glyph in its own cell next to each other, for one text style.
+     */
+    private static class Glyphs {
+
+        private final String mGlyphs;
+
+        private final float mTextSize;
+        private final Typeface mTypeface;
+        private final float mTextScaleX;
+        private final float mTextSkewX;
+        private final boolean mFakeBold;
+        private final boolean mAntiAlias;
+
+        private final GlyphAtlasLayout mLayout = new GlyphAtlasLayout();
+        private final Bitmap mBitmap;
+
+        /** the number of atlases using the glyphs */
+        private int mUsers = 1;
+
+        Glyphs(String glyphs, Paint p) {
+
+            mGlyphs = glyphs;
+
+            mTextSize = p.getTextSize();
+            mTypeface = p.getTypeface();
+            mTextScaleX = p.getTextScaleX();
+            mTextSkewX = p.getTextSkewX();
+            mFakeBold = p.isFakeBoldText();
+            mAntiAlias = p.isAntiAlias();
+
+            Paint paint = new Paint(p);
+            paint.setColor(0xff000000);
+            paint.setShader(null);
+
+            Paint.FontMetrics fm = new Paint.FontMetrics();
+            paint.getFontMetrics(fm);
+
+            int count = glyphs.length();
+
+            float[] advances = new float[count];
+            float[] boundsLeft = new float[count];
+            float[] boundsRight = new float[count];
+            paint.getTextWidths(glyphs, advances);
+
+            Rect bounds = new Rect();
+
+            for (int i = 0; i < count; i++) {
+                paint.getTextBounds(glyphs, i, i + 1, bounds);
+                boundsLeft[i] = bounds.left;
+                boundsRight[i] = bounds.right;
+            }
+
+            mLayout.layout(fm.top, fm.bottom, advances, boundsLeft, boundsRight);
+
+            mBitmap = Bitmap.createBitmap(mLayout.getWidth(), mLayout.getHeight(),
+                    Bitmap.Config.ALPHA_8);
+            Canvas canvas = new Canvas(mBitmap);
+
+            for (int i = 0; i < count; i++) {
+
+                int x = mLayout.getOriginX(i);
+                int y = mLayout.getOriginY(i);
+
+                canvas.save();
+                canvas.rotate(270, x, y);
+                canvas.drawText(glyphs, i, i + 1, x, y, paint);
+                canvas.restore();
+            }
+        }
+
+        /**
+         * Returns true if the glyphs are the given characters rendered in the
+         * text style of the given paint.
+         * 
+         * @param glyphs
+         * @param p
+         * @return
+         */
+        boolean matches(String glyphs, Paint p) {
+            return p.getTextSize() == mTextSize && p.getTypeface() == mTypeface
+                    && p.getTextScaleX() == mTextScaleX && p.getTextSkewX() == mTextSkewX
+                    && p.isFakeBoldText() == mFakeBold && p.isAntiAlias() == mAntiAlias
+                    && mGlyphs.equals(glyphs);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+
+package com.philjay.valuebar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * Holds a single vertical label pre-rendered into a bitmap, so that the label
+ * can be drawn by blitting the bitmap instead of measuring, rotating and
+ * drawing the text on every frame. The bitmap is reused when the label is
+ * rendered again and fits into it.
+ * 
+ * @author Philipp Jahoda
+ */
+class LabelLayer {
+
+    /** empty space around the label inside the bitmap, in pixels */
+    private static final int PADDING = 2;
+
+    /** the bitmap holding the rendered label, null if empty */
+    private Bitmap mBitmap;
+
+    /** canvas drawing into mBitmap */
+    private Canvas mCanvas;
+
+    /** position of the bitmap inside the view */
+    private int mLeft, mTop;
+
+    private Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+
+    /**
+     * Renders the given text vertically (rotated by 270 degrees) into the
+     * layer, exactly as it would be drawn at (x, y) on a canvas that is
+     * rotated around that point.
+     * 
+     * @param text
+     * @param textWidth the width of the text measured with the given paint
+     * @param x
+     * @param y
+     * @param p
+     */
+    public void render(String text, float textWidth, float x, float y, Paint p) {
+
+        p.getFontMetrics(mFontMetrics);
+
+        mLeft = (int) Math.floor(x + mFontMetrics.top) - PADDING;
+        mTop = (int) Math.floor(y - textWidth) - PADDING;
+
+        int width = (int) Math.ceil(x + mFontMetrics.bottom) + PADDING - mLeft;
+        int height = (int) Math.ceil(y) + PADDING - mTop;
+
+        if (mBitmap == null || mBitmap.getWidth() < width || mBitmap.getHeight() < height) {
+            recycle();
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+        } else {
+            mBitmap.eraseColor(Color.TRANSPARENT);
+        }
+
+        mCanvas.save();
+        mCanvas.translate(-mLeft, -mTop);
+        mCanvas.rotate(270, x, y);
+        mCanvas.drawText(text, x, y, p);
+        mCanvas.restore();
+    }
+
+    /**
+     * Draws the rendered label onto the given canvas.
+     * 
+     * @param canvas
+     */
+    public void draw(Canvas canvas) {
+
+        if (mBitmap != null)
+            canvas.drawBitmap(mBitmap, mLeft, mTop, null);
+    }
+
+    /**
+     * Releases the bitmap of the layer.
+     */
+    public void recycle() {
+
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+            mCanvas = null;
+        }
+    }
+}
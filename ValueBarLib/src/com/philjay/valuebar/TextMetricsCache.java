@@ -0,0 +1,96 @@
+package com.philjay.valuebar;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import com.philjay.valuebar.core.MeasuredTextCache;
+
+/**
+ * Small cache for text measurements (width and height) of a single Paint
+ * object. Entries are keyed by the text itself, the cache drops all entries
+ * as soon as the text-size or Typeface of the Paint changes. Lookups and hits
+ * do not allocate, which makes the cache suitable for use inside drawing
+ * methods.
+ * 
+ * @author Philipp Jahoda
+ */
+public class TextMetricsCache extends MeasuredTextCache {
+
+    /** the default number of different texts cached at the same time */
+    public static final int DEFAULT_CAPACITY = 8;
+
+    /** the paint object the measurements are done with */
+    private Paint mPaint;
+
+    /** text-size of the paint at the time the entries were measured */
+    private float mTextSize;
+
+    /** Typeface of the paint at the time the entries were measured */
+    private Typeface mTypeface;
+
+    /** rect reused for measuring text bounds */
+    private Rect mBounds = new Rect();
+
+    public TextMetricsCache(Paint paint) {
+        this(paint, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache for the given paint that holds the measurements of up
+     * to the given number of different texts.
+     * 
+     * @param paint
+     * @param capacity
+     */
+    public TextMetricsCache(Paint paint, int capacity) {
+        super(capacity);
+
+        mPaint = paint;
+        invalidate();
+    }
+
+    /**
+     * Drops all cached measurements. Call this after changing the text-size or
+     * Typeface of the paint. Changes of the paint are also recognized
+     * automatically upon the next lookup.
+     */
+    public void invalidate() {
+
+        clear();
+
+        mTextSize = mPaint.getTextSize();
+        mTypeface = mPaint.getTypeface();
+    }
+
+    /**
+     * Drops all entries if text-size or Typeface of the paint have changed
+     * since the entries were measured.
+     */
+    @Override
+    protected void onLookup() {
+        if (mPaint.getTextSize() != mTextSize || mPaint.getTypeface() != mTypeface)
+            invalidate();
+    }
+
+    @Override
+    protected float measureWidth(String text) {
+        return mPaint.measureText(text);
+    }
+
+    @Override
+    protected float measureHeight(String text) {
+        return Utils.calcTextHeight(mPaint, text, mBounds);
+    }
+
+    @Override
+    protected float measureWidth(char[] text, int start, int count) {
+        return mPaint.measureText(text, start, count);
+    }
+
+    @Override
+    protected float measureHeight(char[] text, int start, int count) {
+        mPaint.getTextBounds(text, start, count, mBounds);
+        return mBounds.height();
+    }
+}
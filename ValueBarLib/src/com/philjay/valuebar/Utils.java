@@ -8,10 +8,11 @@ import android.util.DisplayMetrics;
 import android.util.Log;
 
 /**
- * Utilities class that has some helper methods. Needs to be initialized by
- * calling Utils.init(...) before usage. Inside the Chart.init() method, this is
- * done, if the Utils are used before that, Utils.init(...) needs to be called
- * manually.
+ * Utilities class that has some helper methods. The conversions between dp and
+ * pixels need to be initialized by calling Utils.init(...) before usage. The
+ * views of the library do not use (or initialize) them anymore, they convert
+ * with the density of their own Resources, which stays correct if the
+ * density changes.
  * 
  * @author Philipp Jahoda
  */
@@ -20,10 +21,13 @@ public abstract class Utils {
     private static DisplayMetrics mMetrics;
 
     /**
-     * initialize method, called inside the Chart.init() method.
+     * Initializes the conversions between dp and pixels with the metrics of
+     * the given Resources.
      * 
      * @param res
+     * @deprecated use the DisplayMetrics of the Resources of a View or Context
      */
+    @Deprecated
     public static void init(Resources res) {
         mMetrics = res.getDisplayMetrics();
     }
@@ -36,7 +40,9 @@ public abstract class Utils {
      *            to convert into pixels
      * @return A float value to represent px equivalent to dp depending on
      *         device density
+     * @deprecated use the density of the DisplayMetrics of a View or Context
      */
+    @Deprecated
     public static float convertDpToPixel(float dp) {
 
         if (mMetrics == null) {
@@ -59,7 +65,9 @@ public abstract class Utils {
      * 
      * @param px A value in px (pixels) unit. Which we need to convert into db
      * @return A float value to represent dp equivalent to px value
+     * @deprecated use the density of the DisplayMetrics of a View or Context
      */
+    @Deprecated
     public static float convertPixelsToDp(float px) {
 
         if (mMetrics == null) {
@@ -97,9 +105,21 @@ public abstract class Utils {
      * @return
      */
     public static int calcTextHeight(Paint paint, String demoText) {
+        return calcTextHeight(paint, demoText, new Rect());
+    }
+
+    /**
+     * calculates the approximate height of a text, depending on a demo text,
+     * uses the provided Rect for measuring instead of allocating a new one
+     * 
+     * @param paint
+     * @param demoText
+     * @param outBounds
+     * @return
+     */
+    public static int calcTextHeight(Paint paint, String demoText, Rect outBounds) {
 
-        Rect r = new Rect();
-        paint.getTextBounds(demoText, 0, demoText.length(), r);
-        return r.height();
+        paint.getTextBounds(demoText, 0, demoText.length(), outBounds);
+        return outBounds.height();
     }
 }
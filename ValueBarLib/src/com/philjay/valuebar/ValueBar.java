@@ -1,16 +1,20 @@
 
 package com.philjay.valuebar;
 
-import android.animation.ObjectAnimator;
+import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.animation.ValueAnimator.AnimatorUpdateListener;
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.GestureDetector;
@@ -19,8 +23,12 @@ import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
 
 import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.core.BarLayout;
+import com.philjay.valuebar.metrics.ValueBarMetrics;
+import com.philjay.valuebar.scale.LinearScaleMapper;
+import com.philjay.valuebar.scale.ScaleMapper;
 
-import java.text.DecimalFormat;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * ValueBar is a custom View for displaying values in an edgy bar.
@@ -41,179 +49,711 @@ public class ValueBar extends View implements AnimatorUpdateListener {
     /** the interval in which values can be chosen and displayed */
     private float mInterval = 1f;
 
+    /** the latest snapshot published via publish(...), null if applied */
+    private final AtomicReference<ValueBarSnapshot> mPendingSnapshot =
+            new AtomicReference<ValueBarSnapshot>();
+
+    /** the steps that can be chosen by touch */
+    private StepModel mSteps;
+
+    /** maps values to pixel positions and back */
+    private ScaleMapper mScaleMapper;
+
     private RectF mBar;
 
-    private Paint mBarPaint;
-    private Paint mBorderPaint;
-    private Paint mValueTextPaint;
-    private Paint mMinMaxTextPaint;
-    private Paint mOverlayPaint;
+    /** draws the bar and its labels */
+    private BarRenderer mRenderer;
+
+    /** interpolator used for all animations, it is stateless */
+    private static final TimeInterpolator INTERPOLATOR = new AccelerateDecelerateInterpolator();
 
-    private ObjectAnimator mAnimator;
+    /** animator driving the animations of the bar, created once */
+    private ValueAnimator mAnimator;
+
+    /** the value the current animation starts at */
+    private float mAnimationFrom;
+
+    /** the value the current animation ends at */
+    private float mAnimationTo;
+
+    /**
+     * incremented whenever an animation of the bar is started or cancelled,
+     * allows external animations to detect that they lost control of the bar
+     */
+    private int mAnimationGeneration = 0;
 
-    private boolean mDrawBorder = true;
-    private boolean mDrawValueText = true;
-    private boolean mDrawMinMaxText = true;
     private boolean mTouchEnabled = true;
 
-    private BarColorFormatter mColorFormatter;
-    private ValueTextFormatter mValueTextFormatter;
+    /** the formatted minimum label, null if it needs to be formatted again */
+    private String mMinText;
+
+    /** the formatted maximum label, null if it needs to be formatted again */
+    private String mMaxText;
+
+    /** the pre-rendered maximum label */
+    private LabelLayer mMaxLabelLayer;
+
+    /** the pre-rendered minimum label */
+    private LabelLayer mMinLabelLayer;
+
+    /** true if the label layers are up to date */
+    private boolean mLabelLayersValid = false;
+
+    /** color of the min-max paint when the label layers were rendered */
+    private int mLayerTextColor;
+
+    /** text-size of the min-max paint when the label layers were rendered */
+    private float mLayerTextSize;
+
+    /** Typeface of the min-max paint when the label layers were rendered */
+    private Typeface mLayerTypeface;
+
+    /**
+     * left edge of the area that depended on the value in the last draw (bar
+     * end, overlay and value-text), NaN if nothing has been drawn yet
+     */
+    private float mDrawnLeft = Float.NaN;
+
+    /** right edge of the area that depended on the value in the last draw */
+    private float mDrawnRight = Float.NaN;
+
+    /** true if the minimum label was drawn in the last draw */
+    private boolean mDrawnMinLabel = false;
+
+    /** the (scaled) height of the value-text in the last draw */
+    private float mDrawnTextHeight = 0f;
+
+    /** the fill color of the bar in the last draw */
+    private int mDrawnColor;
+
+    /** records the costs of the bar, null if disabled */
+    private ValueBarMetrics mMetrics;
+
+    /** the minimum width to fit the texts, valid if mIntrinsicSizeValid */
+    private float mIntrinsicWidth;
+
+    /** the height to fit the texts, valid if mIntrinsicSizeValid */
+    private float mIntrinsicHeight;
+
+    /** false if range or formatter changed since the last measurement */
+    private boolean mIntrinsicSizeValid = false;
+
+    /** text-size of the value-text paint when the intrinsic size was measured */
+    private float mMeasuredValueTextSize;
+
+    /** Typeface of the value-text paint when the intrinsic size was measured */
+    private Typeface mMeasuredValueTypeface;
+
+    /** text-size of the min-max paint when the intrinsic size was measured */
+    private float mMeasuredMinMaxTextSize;
+
+    /** Typeface of the min-max paint when the intrinsic size was measured */
+    private Typeface mMeasuredMinMaxTypeface;
+
+    /** the texts that were drawn when the intrinsic size was measured */
+    private boolean mMeasuredValueText, mMeasuredMinMaxText;
+
+    /** collects changes applied at once, created on the first edit */
+    private ValueBarEditor mEditor;
 
     public ValueBar(Context context) {
         super(context);
-        init();
+        init(null, 0);
     }
 
     public ValueBar(Context context, AttributeSet attrs) {
         super(context, attrs);
-        init();
+        init(attrs, 0);
     }
 
     public ValueBar(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        init();
+        init(attrs, defStyleAttr);
     }
 
     /**
      * Do all preparations.
+     * 
+     * @param attrs the attributes from xml, null if created in code
+     * @param defStyleAttr
      */
-    private void init() {
-
-        Utils.init(getResources());
+    private void init(AttributeSet attrs, int defStyleAttr) {
 
         mBar = new RectF();
-        mBarPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mBarPaint.setStyle(Paint.Style.FILL);
+        mSteps = new StepModel();
+        mScaleMapper = new LinearScaleMapper();
+        mRenderer = new BarRenderer(TextMetricsCache.DEFAULT_CAPACITY,
+                getResources().getDisplayMetrics().density);
+
+        mMaxLabelLayer = new LabelLayer();
+        mMinLabelLayer = new LabelLayer();
+
+        if (attrs != null)
+            applyAttributes(attrs, defStyleAttr);
+    }
+
+    /**
+     * Applies the attributes of the ValueBarStyle and ValueBar styleables.
+     * 
+     * @param attrs
+     * @param defStyleAttr
+     */
+    private void applyAttributes(AttributeSet attrs, int defStyleAttr) {
+
+        Context context = getContext();
+
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ValueBarStyle,
+                defStyleAttr, 0);
+        mRenderer.applyStyle(a);
+        a.recycle();
+
+        a = context.obtainStyledAttributes(attrs, R.styleable.ValueBar, defStyleAttr, 0);
+
+        setMinMax(a.getFloat(R.styleable.ValueBar_vb_min, mMinVal),
+                a.getFloat(R.styleable.ValueBar_vb_max, mMaxVal));
+        setValue(a.getFloat(R.styleable.ValueBar_vb_value, mValue));
+        setInterval(a.getFloat(R.styleable.ValueBar_vb_interval, mInterval));
+
+        mTouchEnabled = a.getBoolean(R.styleable.ValueBar_vb_touchEnabled, mTouchEnabled);
+        mTouchCoalescingEnabled = a.getBoolean(R.styleable.ValueBar_vb_touchCoalescingEnabled,
+                mTouchCoalescingEnabled);
+
+        a.recycle();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
 
-        mBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mBorderPaint.setStyle(Paint.Style.STROKE);
-        mBorderPaint.setStrokeWidth(Utils.convertDpToPixel(2f));
+        // e.g. moved to a display with a different density
+        mRenderer.setDensity(getResources().getDisplayMetrics().density);
+        mLabelLayersValid = false;
+        updateIntrinsicSize();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        if (!isIntrinsicSizeValid())
+            measureIntrinsicSize();
+
+        // the bar takes all available width unless it is too narrow for the
+        // texts, wrap_content fits the height to the texts
+        int width = getDefaultSize(
+                Math.max(getSuggestedMinimumWidth(), (int) Math.ceil(mIntrinsicWidth)),
+                widthMeasureSpec);
+        int height = resolveSize(
+                Math.max(getSuggestedMinimumHeight(), (int) Math.ceil(mIntrinsicHeight)),
+                heightMeasureSpec);
+
+        setMeasuredDimension(width, height);
+    }
+
+    /**
+     * Returns true if the intrinsic size was measured for the current range,
+     * formatter, texts and text styles.
+     * 
+     * @return
+     */
+    private boolean isIntrinsicSizeValid() {
+
+        Paint value = mRenderer.getValueTextPaint();
+        Paint minMax = mRenderer.getMinMaxTextPaint();
+
+        return mIntrinsicSizeValid
+                && value.getTextSize() == mMeasuredValueTextSize
+                && value.getTypeface() == mMeasuredValueTypeface
+                && minMax.getTextSize() == mMeasuredMinMaxTextSize
+                && minMax.getTypeface() == mMeasuredMinMaxTypeface
+                && mRenderer.isDrawValueTextEnabled() == mMeasuredValueText
+                && mRenderer.isDrawMinMaxTextEnabled() == mMeasuredMinMaxText;
+    }
+
+    /**
+     * Measures the size the ValueBar needs to fit its texts.
+     * 
+     * @return true if the size changed since the last measurement
+     */
+    private boolean measureIntrinsicSize() {
+
+        float width = mIntrinsicWidth;
+        float height = mIntrinsicHeight;
+
+        BarLayout layout = mRenderer.measureIntrinsicSize(mMinVal, mMaxVal, getMinText(),
+                getMaxText());
 
-        mValueTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mValueTextPaint.setColor(Color.WHITE);
-        mValueTextPaint.setTextSize(Utils.convertDpToPixel(18f));
+        mIntrinsicWidth = layout.getIntrinsicWidth();
+        mIntrinsicHeight = layout.getIntrinsicHeight();
 
-        mMinMaxTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mMinMaxTextPaint.setColor(Color.WHITE);
-        mMinMaxTextPaint.setTextSize(Utils.convertDpToPixel(18f));
+        Paint value = mRenderer.getValueTextPaint();
+        Paint minMax = mRenderer.getMinMaxTextPaint();
 
-        mOverlayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mOverlayPaint.setStyle(Paint.Style.FILL);
-        mOverlayPaint.setColor(Color.WHITE);
-        mOverlayPaint.setAlpha(120);
+        mMeasuredValueTextSize = value.getTextSize();
+        mMeasuredValueTypeface = value.getTypeface();
+        mMeasuredMinMaxTextSize = minMax.getTextSize();
+        mMeasuredMinMaxTypeface = minMax.getTypeface();
+        mMeasuredValueText = mRenderer.isDrawValueTextEnabled();
+        mMeasuredMinMaxText = mRenderer.isDrawMinMaxTextEnabled();
+        mIntrinsicSizeValid = true;
 
-        mColorFormatter = new DefaultColorFormatter(Color.rgb(39, 140, 230));
-        mValueTextFormatter = new DefaultValueTextFormatter();
+        return width != mIntrinsicWidth || height != mIntrinsicHeight;
+    }
+
+    /**
+     * Measures the intrinsic size again if range, formatter, texts or text
+     * styles changed, and requests a new layout only if the texts need more or
+     * less room. Called by everything that changes the texts, value changes
+     * never affect the layout.
+     */
+    private void updateIntrinsicSize() {
+
+        if (!isIntrinsicSizeValid() && measureIntrinsicSize())
+            requestLayout();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mLabelLayersValid = false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        // a detached bar must not keep animating, it shows the end value if it
+        // is attached again without being bound to a new state
+        if (isAnimating())
+            mValue = mAnimationTo;
+        cancelAnimation();
+        cancelTouchUpdate();
+
+        mMaxLabelLayer.recycle();
+        mMinLabelLayer.recycle();
+        mLabelLayersValid = false;
+        mRenderer.recycle();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
+        long start = mMetrics != null ? System.nanoTime() : 0L;
+
         prepareBarSize();
 
-        if (mDrawMinMaxText)
-            drawMinMaxText(canvas);
+        mDrawnLeft = mBar.right;
+        mDrawnRight = mBar.right;
+        mDrawnMinLabel = isMinLabelVisible();
 
-        mBarPaint.setColor(mColorFormatter.getColor(mValue, mMaxVal, mMinVal));
+        if (mRenderer.isDrawMinMaxTextEnabled())
+            drawMinMaxText(canvas);
 
         // draw the value-bar
-        canvas.drawRect(mBar, mBarPaint);
+        mRenderer.drawBar(canvas, getWidth(), mBar, mValue, mMinVal, mMaxVal);
+        mDrawnColor = mRenderer.getDrawnBarColor();
 
         // draw the border
-        if (mDrawBorder)
-            canvas.drawRect(0, 0, getWidth(), getHeight(),
-                    mBorderPaint);
+        mRenderer.drawBorder(canvas, getWidth(), getHeight());
+
+        if (mRenderer.drawValueText(canvas, mBar, getHeight(), mValue, mMinVal, mMaxVal)) {
+
+            // remember the area covered by overlay and text
+            mDrawnLeft = Math.min(mDrawnLeft, mRenderer.getOverlayLeft());
+            mDrawnRight = Math.max(mDrawnRight, mRenderer.getLabelRight());
+            mDrawnTextHeight = mRenderer.getTextHeight();
+        }
 
-        if (mDrawValueText)
-            drawValueText(canvas);
+        if (mMetrics != null)
+            mMetrics.onDraw(System.nanoTime() - start);
     }
 
     /**
-     * Draws all text on the ValueBar.
+     * Draws the minimum and maximum text values from the pre-rendered label
+     * layers. The layers are rendered again if they are outdated.
      * 
      * @param canvas
      */
-    private void drawValueText(Canvas canvas) {
+    private void drawMinMaxText(Canvas canvas) {
 
-        if (mValue <= mMinVal && mDrawMinMaxText)
-            return;
+        Paint p = mRenderer.getMinMaxTextPaint();
 
-        String text = mValueTextFormatter.getValueText(mValue, mMaxVal, mMinVal);
+        if (!mLabelLayersValid
+                || p.getColor() != mLayerTextColor
+                || p.getTextSize() != mLayerTextSize
+                || p.getTypeface() != mLayerTypeface)
+            renderLabelLayers();
 
-        float textHeight = Utils.calcTextHeight(mValueTextPaint, text) * 1.5f;
-        float textWidth = Utils.calcTextWidth(mValueTextPaint, text);
+        mMaxLabelLayer.draw(canvas);
 
-        float x = mBar.right - textHeight / 2f;
-        float y = getHeight() / 2f + textWidth / 2f;
+        if (isMinLabelVisible())
+            mMinLabelLayer.draw(canvas);
+    }
+
+    /**
+     * Renders the minimum and maximum labels into their layers.
+     */
+    private void renderLabelLayers() {
+
+        String max = getMaxText();
+        String min = getMinText();
+
+        Paint p = mRenderer.getMinMaxTextPaint();
 
-        if (x < textHeight)
-            x = textHeight;
+        BarLayout layout = mRenderer.layoutMinMaxText(min, max, getWidth(), getHeight());
 
-        // draw overlay
-        canvas.drawRect(x - textHeight / 1.5f - textHeight / 2f, 0, mBar.right,
-                getHeight(),
-                mOverlayPaint);
+        mMaxLabelLayer.render(max, mRenderer.getMinMaxTextWidth(max), layout.getMaxLabelX(),
+                layout.getMaxLabelY(), p);
 
-        drawTextVertical(canvas, text, x, y, mValueTextPaint);
+        mMinLabelLayer.render(min, mRenderer.getMinMaxTextWidth(min), layout.getMinLabelX(),
+                layout.getMinLabelY(), p);
+
+        mLayerTextColor = p.getColor();
+        mLayerTextSize = p.getTextSize();
+        mLayerTypeface = p.getTypeface();
+        mLabelLayersValid = true;
     }
 
     /**
-     * Draws the minimum and maximum text values.
+     * Returns the formatted minimum label, formats it if needed.
      * 
-     * @param canvas
+     * @return
      */
-    private void drawMinMaxText(Canvas canvas) {
-
-        String max = mValueTextFormatter.getMaxVal(mMaxVal);
-        String min = mValueTextFormatter.getMinVal(mMinVal);
+    private String getMinText() {
 
-        float textHeight = Utils.calcTextHeight(mValueTextPaint, min) * 1.5f;
+        if (mMinText == null) {
+            mMinText = mRenderer.getValueTextFormatter().getMinVal(mMinVal);
 
-        // draw max
-        drawTextVertical(canvas, max, getWidth() - textHeight / 2f,
-                getHeight() / 2f + Utils.calcTextWidth(mMinMaxTextPaint, max) / 2f,
-                mMinMaxTextPaint);
+            if (mMetrics != null)
+                mMetrics.onLabelFormatted();
+        }
 
-        if (!mDrawValueText || mValue <= mMinVal) // draw min
-            drawTextVertical(canvas, min, textHeight,
-                    getHeight() / 2f + Utils.calcTextWidth(mMinMaxTextPaint, min) / 2f,
-                    mMinMaxTextPaint);
+        return mMinText;
     }
 
     /**
-     * Draws the text vertically at the provided position.
+     * Returns the formatted maximum label, formats it if needed.
      * 
-     * @param canvas
-     * @param text
-     * @param x
-     * @param y
-     * @param p
+     * @return
      */
-    private void drawTextVertical(Canvas canvas, String text, float x, float y, Paint p) {
+    private String getMaxText() {
 
-        canvas.save();
+        if (mMaxText == null) {
+            mMaxText = mRenderer.getValueTextFormatter().getMaxVal(mMaxVal);
 
-        canvas.rotate(270, x, y);
-        canvas.drawText(text,
-                x,
-                y,
-                p);
-        canvas.restore();
+            if (mMetrics != null)
+                mMetrics.onLabelFormatted();
+        }
+
+        return mMaxText;
+    }
+
+    /**
+     * Drops the formatted minimum and maximum labels so that they are
+     * formatted again upon the next draw.
+     */
+    private void invalidateTexts() {
+        mMinText = null;
+        mMaxText = null;
+        mLabelLayersValid = false;
+        mIntrinsicSizeValid = false;
     }
 
     /**
      * Prepares the bar according to the current value.
      */
     private void prepareBarSize() {
+        mBar.set(0, 0, getBarLength(mValue), getHeight());
+    }
+
+    /**
+     * Returns the length of the bar in pixels for the given value.
+     * 
+     * @param value
+     * @return
+     */
+    private float getBarLength(float value) {
 
-        float length = ((float) getWidth() / (mMaxVal - mMinVal)) * (mValue - mMinVal);
+        // an empty range would divide by zero
+        if (mMaxVal <= mMinVal)
+            return value >= mMaxVal ? getWidth() : 0f;
 
-        mBar.set(0, 0, length, getHeight());
+        mScaleMapper.prepare(mMinVal, mMaxVal, getWidth());
+        return mScaleMapper.getPosition(value);
     }
 
     /**
-     * Sets the minimum and maximum value the bar can display.
+     * Returns true if the minimum label needs to be drawn for the current
+     * value.
+     * 
+     * @return
+     */
+    private boolean isMinLabelVisible() {
+        return mRenderer.isMinLabelVisible(mValue, mMinVal);
+    }
+
+    /**
+     * Invalidates only the area of the ValueBar that changes when the value
+     * changes: The strip between the old and the new end of the bar, including
+     * the overlay and value-text at both positions. Falls back to invalidating
+     * the whole view if other parts are affected as well, e.g. if the color
+     * formatter provides a new fill color for the value.
+     */
+    private void invalidateValue() {
+
+        if (mMetrics != null)
+            mMetrics.onInvalidate();
+
+        if (Float.isNaN(mDrawnLeft) || isMinLabelVisible() != mDrawnMinLabel) {
+            invalidate();
+            return;
+        }
+
+        // a color formatter may fill the whole bar with a new color, only a
+        // gradient fill keeps the pixels left of the strip
+        if (mRenderer.getGradientFill() == null
+                && mRenderer.getBarColor(mValue, mMinVal, mMaxVal) != mDrawnColor) {
+            invalidate();
+            return;
+        }
+
+        float right = getBarLength(mValue);
+        float left = right;
+        float labelRight = right;
+
+        if (mRenderer.isValueTextVisible(mValue, mMinVal)) {
+
+            // predict the position of overlay and text the same way
+            // drawValueText(...) computes them, the text height of the last
+            // draw is used as an estimate
+            float textHeight = mDrawnTextHeight;
+            float x = Math.max(right - textHeight / 2f, textHeight);
+
+            left = x - textHeight / 1.5f - textHeight / 2f;
+            labelRight = Math.max(right, x + textHeight / 2f);
+        }
+
+        // margin for changes in text height and anti-aliasing
+        float margin = mDrawnTextHeight / 4f + mRenderer.getBorderPaint().getStrokeWidth() + 2f;
+
+        left = Math.min(left, mDrawnLeft) - margin;
+        right = Math.max(labelRight, mDrawnRight) + margin;
+
+        invalidate((int) Math.floor(left), 0, (int) Math.ceil(right), getHeight());
+    }
+
+    /**
+     * Applies everything the given state describes to the ValueBar in one pass
+     * and redraws it once. Running animations (also of a
+     * ValueBarAnimationCoordinator) are cancelled, the bar displays the value
+     * of the state right away. Properties the state leaves unset (step table,
+     * gradient fill, scale mapper, formatters) are reset to their defaults, so
+     * nothing of the previously bound item remains. Texts are only formatted
+     * again if range or formatter changed. Use this when recycling ValueBars
+     * in scrolling lists.
+     * 
+     * @param state
+     */
+    public void bind(ValueBarState state) {
+
+        // a snapshot published for the previous item must not override
+        mPendingSnapshot.set(null);
+
+        apply(edit().set(state), false);
+        mEditor.reset();
+    }
+
+    /**
+     * Returns the editor of the ValueBar for changing several properties at
+     * once, the changes are applied by its commit() method with a single
+     * invalidate. The editor is reused, changes that have not been committed
+     * are discarded by the next call of edit() or bind(...).
+     * 
+     * <pre>
+     * bar.edit().setMinMax(0f, 1000f).setValue(800f).setDrawBorder(false).commit();
+     * </pre>
+     * 
+     * @return
+     */
+    public ValueBarEditor edit() {
+
+        if (mEditor == null)
+            mEditor = new ValueBarEditor(this);
+
+        return mEditor.reset();
+    }
+
+    /**
+     * Applies all changes of the given editor in one pass and invalidates the
+     * ValueBar once. Shared by bind(...) and ValueBarEditor.commit(). If the
+     * value is changed, running animations (also of a
+     * ValueBarAnimationCoordinator) and drag updates are cancelled.
+     * 
+     * @param e
+     * @param notify true to call onSelectionUpdate(...) if the value changed
+     */
+    void apply(ValueBarEditor e, boolean notify) {
+
+        float oldValue = mValue;
+
+        if (e.isChanged(ValueBarEditor.CHANGED_VALUE)) {
+            cancelAnimation();
+            cancelTouchUpdate();
+        }
+
+        applyModel(e.isChanged(ValueBarEditor.CHANGED_RANGE) ? e.mMinVal : mMinVal,
+                e.isChanged(ValueBarEditor.CHANGED_RANGE) ? e.mMaxVal : mMaxVal,
+                e.isChanged(ValueBarEditor.CHANGED_VALUE) ? e.mValue : mValue,
+                e.isChanged(ValueBarEditor.CHANGED_INTERVAL) ? e.mInterval : mInterval);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_STEPS))
+            mSteps.setSteps(e.mSteps);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_COLOR_FORMATTER))
+            mRenderer.setColorFormatter(e.mColorFormatter);
+        else if (e.isChanged(ValueBarEditor.CHANGED_COLOR))
+            mRenderer.setColor(e.mColor);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_GRADIENT_FILL))
+            mRenderer.setGradientFill(e.mGradientFill);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_SCALE_MAPPER)) {
+
+            // the linear default is kept instead of creating a new one
+            if (e.mScaleMapper != null)
+                mScaleMapper = e.mScaleMapper;
+            else if (!(mScaleMapper instanceof LinearScaleMapper))
+                mScaleMapper = new LinearScaleMapper();
+        }
+
+        if (e.isChanged(ValueBarEditor.CHANGED_VALUE_TEXT_FORMATTER)) {
+
+            ValueTextFormatter formatter = e.mValueTextFormatter;
+
+            // the labels are only formatted again if the formatter changed
+            if (formatter == null ? !mRenderer.isDefaultValueTextFormatter()
+                    : formatter != mRenderer.getValueTextFormatter()) {
+                mRenderer.setValueTextFormatter(formatter);
+                invalidateTexts();
+            }
+        }
+
+        if (e.isChanged(ValueBarEditor.CHANGED_DRAW_BORDER))
+            mRenderer.setDrawBorder(e.mDrawBorder);
+        if (e.isChanged(ValueBarEditor.CHANGED_BORDER_WIDTH))
+            mRenderer.getBorderPaint().setStrokeWidth(e.mBorderWidth);
+        if (e.isChanged(ValueBarEditor.CHANGED_BORDER_COLOR))
+            mRenderer.getBorderPaint().setColor(e.mBorderColor);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_DRAW_VALUE_TEXT))
+            mRenderer.setDrawValueText(e.mDrawValueText);
+        if (e.isChanged(ValueBarEditor.CHANGED_DRAW_MIN_MAX_TEXT))
+            mRenderer.setDrawMinMaxText(e.mDrawMinMaxText);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_VALUE_TEXT_SIZE)) {
+            mRenderer.getValueTextPaint().setTextSize(
+                    mRenderer.convertDpToPixel(e.mValueTextSize));
+            mLabelLayersValid = false;
+        }
+        if (e.isChanged(ValueBarEditor.CHANGED_VALUE_TEXT_TYPEFACE)) {
+            mRenderer.getValueTextPaint().setTypeface(e.mValueTextTypeface);
+            mLabelLayersValid = false;
+        }
+
+        if (e.isChanged(ValueBarEditor.CHANGED_MIN_MAX_TEXT_SIZE))
+            mRenderer.getMinMaxTextPaint().setTextSize(
+                    mRenderer.convertDpToPixel(e.mMinMaxTextSize));
+        if (e.isChanged(ValueBarEditor.CHANGED_MIN_MAX_TEXT_TYPEFACE))
+            mRenderer.getMinMaxTextPaint().setTypeface(e.mMinMaxTextTypeface);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_OVERLAY_COLOR))
+            mRenderer.setOverlayColor(e.mOverlayColor);
+
+        if (e.isChanged(ValueBarEditor.CHANGED_TOUCH_ENABLED))
+            mTouchEnabled = e.mTouchEnabled;
+
+        updateIntrinsicSize();
+
+        if (mMetrics != null)
+            mMetrics.onInvalidate();
+
+        invalidate();
+
+        if (notify && mValue != oldValue && mSelectionListener != null)
+            mSelectionListener.onSelectionUpdate(mValue, mMaxVal, mMinVal, this);
+    }
+
+    /**
+     * Hands the given snapshot to the ValueBar. Can be called on any thread
+     * without locking: The latest published snapshot is applied as a whole
+     * on the UI thread at the beginning of the next frame, before the bar is
+     * drawn. Snapshots published before that replace each other. A running
+     * animation is cancelled when the snapshot is applied.
+     * 
+     * @param snapshot
+     */
+    public void publish(ValueBarSnapshot snapshot) {
+
+        // only the first snapshot since the last frame needs to schedule one
+        if (mPendingSnapshot.getAndSet(snapshot) == null)
+            ViewCompat.postOnAnimation(this, mApplySnapshot);
+    }
+
+    /** applies the latest published snapshot (if any) on the UI thread */
+    private final Runnable mApplySnapshot = new Runnable() {
+
+        @Override
+        public void run() {
+
+            ValueBarSnapshot snapshot = mPendingSnapshot.getAndSet(null);
+
+            if (snapshot == null)
+                return;
+
+            if (isAnimating())
+                cancelAnimation();
+
+            applyModel(snapshot.getMin(), snapshot.getMax(), snapshot.getValue(),
+                    snapshot.getInterval());
+            updateIntrinsicSize();
+
+            if (mMetrics != null)
+                mMetrics.onInvalidate();
+
+            invalidate();
+        }
+    };
+
+    /**
+     * Sets range, value and interval at once. Texts and steps are only
+     * updated if they are affected.
+     * 
+     * @param min
+     * @param max
+     * @param value
+     * @param interval
+     */
+    private void applyModel(float min, float max, float value, float interval) {
+
+        if (min != mMinVal || max != mMaxVal) {
+            mMinVal = min;
+            mMaxVal = max;
+            mSteps.setRange(min, max);
+            invalidateTexts();
+        }
+
+        mValue = value;
+
+        if (interval != mInterval) {
+            mInterval = interval;
+            mSteps.setInterval(interval);
+        }
+    }
+
+    /**
+     * Sets the minimum and maximum value the bar can display. Must be called
+     * on the UI thread, use publish(...) from other threads.
      * 
      * @param min
      * @param max
@@ -221,6 +761,9 @@ public class ValueBar extends View implements AnimatorUpdateListener {
     public void setMinMax(float min, float max) {
         mMaxVal = max;
         mMinVal = min;
+        mSteps.setRange(min, max);
+        invalidateTexts();
+        updateIntrinsicSize();
     }
 
     /**
@@ -243,7 +786,8 @@ public class ValueBar extends View implements AnimatorUpdateListener {
 
     /**
      * Sets the actual value the bar displays. Do not forget to set a minimum
-     * and maximum value.
+     * and maximum value. Must be called on the UI thread, use publish(...)
+     * from other threads.
      * 
      * @param value
      */
@@ -268,6 +812,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      */
     public void setInterval(float interval) {
         mInterval = interval;
+        mSteps.setInterval(interval);
     }
 
     /**
@@ -279,6 +824,48 @@ public class ValueBar extends View implements AnimatorUpdateListener {
         return mInterval;
     }
 
+    /**
+     * Sets a table of values that can be chosen on the ValueBar instead of a
+     * uniform interval, e.g. { 1, 2, 5, 10, 20, 50, 100 }. Touch positions are
+     * snapped to the closest value of the table. Provide null to use the
+     * interval again.
+     * 
+     * @param steps
+     */
+    public void setSteps(float[] steps) {
+        mSteps.setSteps(steps);
+    }
+
+    /**
+     * Returns the table of values that can be chosen, null if a uniform
+     * interval is used.
+     * 
+     * @return
+     */
+    public float[] getSteps() {
+        return mSteps.getSteps();
+    }
+
+    /**
+     * Returns the number of values that can be chosen on the ValueBar, 0 if
+     * there is no interval.
+     * 
+     * @return
+     */
+    public int getStepCount() {
+        return mSteps.getStepCount();
+    }
+
+    /**
+     * Returns the index of the step closest to the current value, -1 if there
+     * is no interval. For uniform steps, value = min + index * interval.
+     * 
+     * @return
+     */
+    public int getStepIndex() {
+        return mSteps.isStepped() ? mSteps.getIndexForValue(mValue) : -1;
+    }
+
     /**
      * Returns the bar that represents the value.
      * 
@@ -307,12 +894,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
         if (to > mMaxVal)
             to = mMaxVal;
 
-        mValue = from;
-        mAnimator = ObjectAnimator.ofFloat(this, "value", mValue, to);
-        mAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        mAnimator.setDuration(durationMillis);
-        mAnimator.addUpdateListener(this);
-        mAnimator.start();
+        startAnimation(from, to, durationMillis);
     }
 
     /**
@@ -326,11 +908,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
         if (to > mMaxVal)
             to = mMaxVal;
 
-        mAnimator = ObjectAnimator.ofFloat(this, "value", mValue, to);
-        mAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
-        mAnimator.setDuration(durationMillis);
-        mAnimator.addUpdateListener(this);
-        mAnimator.start();
+        startAnimation(mValue, to, durationMillis);
     }
 
     /**
@@ -344,16 +922,123 @@ public class ValueBar extends View implements AnimatorUpdateListener {
         if (to < mMinVal)
             to = mMinVal;
 
-        mAnimator = ObjectAnimator.ofFloat(this, "value", mValue, to);
-        mAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
+        startAnimation(mValue, to, durationMillis);
+    }
+
+    /**
+     * Starts animating the value of the bar. A running animation is cancelled
+     * and the animator is reused, the animation starts from the given value.
+     * 
+     * @param from
+     * @param to
+     * @param durationMillis
+     */
+    private void startAnimation(float from, float to, int durationMillis) {
+
+        if (mAnimator == null) {
+            mAnimator = ValueAnimator.ofFloat(0f, 1f);
+            mAnimator.setInterpolator(INTERPOLATOR);
+            mAnimator.addUpdateListener(this);
+        } else {
+            mAnimator.cancel();
+        }
+
+        mAnimationGeneration++;
+
+        if (mMetrics != null)
+            mMetrics.onAnimationStopped();
+
+        mValue = from;
+        mAnimationFrom = from;
+        mAnimationTo = to;
+
         mAnimator.setDuration(durationMillis);
-        mAnimator.addUpdateListener(this);
         mAnimator.start();
     }
 
+    /**
+     * Cancels the running animation (if any). The bar keeps the value it
+     * currently displays.
+     */
+    public void cancelAnimation() {
+
+        if (mAnimator != null)
+            mAnimator.cancel();
+
+        mAnimationGeneration++;
+
+        if (mMetrics != null)
+            mMetrics.onAnimationStopped();
+    }
+
+    /**
+     * Returns the current animation generation of the bar, which changes
+     * whenever an animation is started or cancelled.
+     * 
+     * @return
+     */
+    int getAnimationGeneration() {
+        return mAnimationGeneration;
+    }
+
+    /**
+     * Sets the value of the bar as part of an external animation and
+     * invalidates the affected area.
+     * 
+     * @param value
+     */
+    void setAnimatedValue(float value) {
+
+        if (mMetrics != null)
+            mMetrics.onAnimationFrame(System.nanoTime());
+
+        mValue = value;
+        invalidateValue();
+    }
+
+    /**
+     * Sets a value delivered by a ValueFeed and invalidates the affected area.
+     * Unlike setAnimatedValue(...), no animation frame is recorded: Feed
+     * values arrive at irregular intervals, the gaps between them are not
+     * skipped frames.
+     * 
+     * @param value
+     */
+    void setFeedValue(float value) {
+        mValue = value;
+        invalidateValue();
+    }
+
+    /**
+     * Returns true if the bar is currently animating.
+     * 
+     * @return
+     */
+    public boolean isAnimating() {
+        return mAnimator != null && mAnimator.isRunning();
+    }
+
     @Override
     public void onAnimationUpdate(ValueAnimator va) {
-        invalidate();
+
+        float fraction;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1) {
+            fraction = va.getAnimatedFraction();
+        } else {
+            // getAnimatedFraction() is not available, reading the animated
+            // value would box a float for every frame
+            long duration = va.getDuration();
+            fraction = duration > 0 ? va.getCurrentPlayTime() / (float) duration : 1f;
+            fraction = INTERPOLATOR.getInterpolation(Math.min(1f, fraction));
+        }
+
+        mValue = mAnimationFrom + (mAnimationTo - mAnimationFrom) * fraction;
+
+        if (mMetrics != null)
+            mMetrics.onAnimationFrame(System.nanoTime());
+
+        invalidateValue();
     }
 
     /**
@@ -363,7 +1048,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param enabled
      */
     public void setDrawBorder(boolean enabled) {
-        mDrawBorder = enabled;
+        mRenderer.setDrawBorder(enabled);
     }
 
     /**
@@ -372,7 +1057,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param width
      */
     public void setBorderWidth(float width) {
-        mBorderPaint.setStrokeWidth(width);
+        mRenderer.getBorderPaint().setStrokeWidth(width);
     }
 
     /**
@@ -381,20 +1066,21 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param color
      */
     public void setBorderColor(int color) {
-        mBorderPaint.setColor(color);
+        mRenderer.getBorderPaint().setColor(color);
     }
 
     /**
      * Sets a custom formatter that formats the value-text. Provide null to
-     * reset all changes and use the default formatter.
+     * reset all changes and use the default formatter. If the formatter also
+     * implements ValueTextCharFormatter, the value-text is formatted without
+     * allocations.
      * 
      * @param formatter
      */
     public void setValueTextFormatter(ValueTextFormatter formatter) {
-
-        if (formatter == null)
-            formatter = new DefaultValueTextFormatter();
-        mValueTextFormatter = formatter;
+        mRenderer.setValueTextFormatter(formatter);
+        invalidateTexts();
+        updateIntrinsicSize();
     }
 
     /**
@@ -407,10 +1093,33 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param formatter
      */
     public void setColorFormatter(BarColorFormatter formatter) {
+        mRenderer.setColorFormatter(formatter);
+    }
 
-        if (formatter == null)
-            formatter = new DefaultColorFormatter(Color.rgb(39, 140, 230));
-        mColorFormatter = formatter;
+    /**
+     * Fills the bar with a gradient of the given colors that spans the whole
+     * width of the ValueBar, e.g. { Color.RED, Color.YELLOW, Color.GREEN }.
+     * The bar shows the part of the gradient it covers. The gradient is
+     * created once for the size of the ValueBar, unlike a
+     * GradientColorFormatter no color is computed while drawing. The colors
+     * are spread evenly and interpolated in RGB color-space. Provide null to
+     * use the color formatter again.
+     * 
+     * @param colors at least two colors
+     */
+    public void setGradientFill(int[] colors) {
+        mRenderer.setGradientFill(colors);
+        invalidate();
+    }
+
+    /**
+     * Returns the colors of the gradient fill, null if the bar is filled by
+     * the color formatter.
+     * 
+     * @return
+     */
+    public int[] getGradientFill() {
+        return mRenderer.getGradientFill();
     }
 
     /**
@@ -419,7 +1128,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param color
      */
     public void setColor(int color) {
-        mColorFormatter = new DefaultColorFormatter(color);
+        mRenderer.setColor(color);
     }
 
     /**
@@ -428,7 +1137,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @return
      */
     public Paint getBarPaint() {
-        return mBarPaint;
+        return mRenderer.getBarPaint();
     }
 
     /**
@@ -437,7 +1146,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @return
      */
     public Paint getValueTextPaint() {
-        return mValueTextPaint;
+        return mRenderer.getValueTextPaint();
     }
 
     /**
@@ -446,7 +1155,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @return
      */
     public Paint getMinMaxTextPaint() {
-        return mMinMaxTextPaint;
+        return mRenderer.getMinMaxTextPaint();
     }
 
     /**
@@ -455,7 +1164,9 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param size
      */
     public void setValueTextSize(float size) {
-        mValueTextPaint.setTextSize(Utils.convertDpToPixel(size));
+        mRenderer.getValueTextPaint().setTextSize(mRenderer.convertDpToPixel(size));
+        mLabelLayersValid = false;
+        updateIntrinsicSize();
     }
 
     /**
@@ -464,7 +1175,9 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param size
      */
     public void setValueTextTypeface(Typeface tf) {
-        mValueTextPaint.setTypeface(tf);
+        mRenderer.getValueTextPaint().setTypeface(tf);
+        mLabelLayersValid = false;
+        updateIntrinsicSize();
     }
 
     /**
@@ -473,7 +1186,8 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param size
      */
     public void setMinMaxTextSize(float size) {
-        mMinMaxTextPaint.setTextSize(Utils.convertDpToPixel(size));
+        mRenderer.getMinMaxTextPaint().setTextSize(mRenderer.convertDpToPixel(size));
+        updateIntrinsicSize();
     }
 
     /**
@@ -482,7 +1196,8 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param size
      */
     public void setMinMaxTextTypeface(Typeface tf) {
-        mMinMaxTextPaint.setTypeface(tf);
+        mRenderer.getMinMaxTextPaint().setTypeface(tf);
+        updateIntrinsicSize();
     }
 
     /**
@@ -491,9 +1206,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param color
      */
     public void setOverlayColor(int color) {
-        int alpha = mOverlayPaint.getAlpha();
-        mOverlayPaint.setColor(color);
-        mOverlayPaint.setAlpha(alpha);
+        mRenderer.setOverlayColor(color);
     }
 
     /**
@@ -512,7 +1225,8 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param enabled
      */
     public void setDrawValueText(boolean enabled) {
-        mDrawValueText = enabled;
+        mRenderer.setDrawValueText(enabled);
+        updateIntrinsicSize();
     }
 
     /**
@@ -522,7 +1236,7 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @return
      */
     public boolean isDrawValueTextEnabled() {
-        return mDrawValueText;
+        return mRenderer.isDrawValueTextEnabled();
     }
 
     /**
@@ -532,7 +1246,8 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @param enabled
      */
     public void setDrawMinMaxText(boolean enabled) {
-        mDrawMinMaxText = enabled;
+        mRenderer.setDrawMinMaxText(enabled);
+        updateIntrinsicSize();
     }
 
     /**
@@ -541,7 +1256,32 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @return
      */
     public boolean isDrawMinMaxTextEnabled() {
-        return mDrawMinMaxText;
+        return mRenderer.isDrawMinMaxTextEnabled();
+    }
+
+    /**
+     * Set this to true to draw the value-text from an atlas of pre-rendered,
+     * rotated glyphs instead of rotating the canvas for each frame. The atlas
+     * contains digits, separators, signs and common currency symbols, texts
+     * containing other characters are drawn the regular way. Reduces the cost
+     * of drawing text when many bars are animated at once. Bars with the same
+     * text style share the pre-rendered glyphs. The minimum and maximum labels
+     * are always drawn from pre-rendered bitmaps. Default: false
+     * 
+     * @param enabled
+     */
+    public void setGlyphAtlasEnabled(boolean enabled) {
+        mRenderer.setGlyphAtlasEnabled(enabled);
+    }
+
+    /**
+     * Returns true if the value-text is drawn from an atlas of pre-rendered
+     * glyphs.
+     * 
+     * @return
+     */
+    public boolean isGlyphAtlasEnabled() {
+        return mRenderer.isGlyphAtlasEnabled();
     }
 
     /**
@@ -552,9 +1292,59 @@ public class ValueBar extends View implements AnimatorUpdateListener {
      * @return
      */
     public float getValueForPosition(int xPos) {
+        mScaleMapper.prepare(mMinVal, mMaxVal, getWidth());
+        return mScaleMapper.getValue(xPos);
+    }
 
-        float factor = xPos / getWidth();
-        return mMaxVal * factor;
+    /**
+     * Sets the ScaleMapper that maps values to pixel positions, e.g. a
+     * LogScaleMapper for values that span several orders of magnitude. Each
+     * ValueBar needs its own instance. Provide null to reset to the default
+     * linear mapping.
+     * 
+     * @param mapper
+     */
+    public void setScaleMapper(ScaleMapper mapper) {
+
+        if (mapper == null)
+            mapper = new LinearScaleMapper();
+        mScaleMapper = mapper;
+
+        if (mMetrics != null)
+            mMetrics.onInvalidate();
+
+        invalidate();
+    }
+
+    /**
+     * Returns the ScaleMapper that maps values to pixel positions.
+     * 
+     * @return
+     */
+    public ScaleMapper getScaleMapper() {
+        return mScaleMapper;
+    }
+
+    /**
+     * Sets the metrics that record how expensive the ValueBar is: Draw
+     * durations, invalidations, animation frames rendered and skipped, touch
+     * to callback latencies and formatter calls. Each ValueBar needs its own
+     * instance. Provide null to disable recording, which is the default.
+     * 
+     * @param metrics
+     */
+    public void setMetrics(ValueBarMetrics metrics) {
+        mMetrics = metrics;
+        mRenderer.setMetrics(metrics);
+    }
+
+    /**
+     * Returns the metrics of the ValueBar, null if disabled.
+     * 
+     * @return
+     */
+    public ValueBarMetrics getMetrics() {
+        return mMetrics;
     }
 
     /**
@@ -582,38 +1372,106 @@ public class ValueBar extends View implements AnimatorUpdateListener {
     /** gesturedetector for recognizing single-taps */
     private GestureDetector mGestureDetector;
 
+    /** true if drag updates are processed once per frame */
+    private boolean mTouchCoalescingEnabled = true;
+
+    /** the latest horizontal touch position of the current drag */
+    private float mPendingTouchX;
+
+    /** true if a drag update is scheduled for the next frame */
+    private boolean mTouchUpdatePending = false;
+
+    /** time of the oldest touch event of the scheduled drag update */
+    private long mPendingTouchTime;
+
+    /** the value that was last reported via onSelectionUpdate(...) */
+    private float mReportedValue = Float.NaN;
+
+    /** true if the warning about the missing listener has been logged */
+    private boolean mMissingListenerLogged = false;
+
+    /** processes the latest touch position of a drag once per frame */
+    private final Runnable mTouchUpdate = new Runnable() {
+
+        @Override
+        public void run() {
+            mTouchUpdatePending = false;
+            applyDrag(mPendingTouchX, mPendingTouchTime);
+        }
+    };
+
+    /**
+     * Set this to true to process drag gestures once per display frame: Only
+     * the latest touch position of a frame updates the value and
+     * onSelectionUpdate(...) is called at most once per frame, and only if
+     * the value changed. If false, every touch event is processed
+     * immediately. Default: true
+     * 
+     * @param enabled
+     */
+    public void setTouchCoalescingEnabled(boolean enabled) {
+        mTouchCoalescingEnabled = enabled;
+    }
+
+    /**
+     * Returns true if drag gestures are processed once per display frame.
+     * 
+     * @return
+     */
+    public boolean isTouchCoalescingEnabled() {
+        return mTouchCoalescingEnabled;
+    }
+
     @SuppressLint("ClickableViewAccessibility")
     @Override
     public boolean onTouchEvent(MotionEvent e) {
         if (mTouchEnabled) {
 
-            if (mSelectionListener == null)
+            if (mSelectionListener == null && !mMissingListenerLogged) {
                 Log.w("ValueBar",
                         "No SelectionListener specified. Use setSelectionListener(...) to set a listener for callbacks when selecting values.");
+                mMissingListenerLogged = true;
+            }
 
             // if the detector recognized a gesture, consume it
             if (mGestureDetector != null && mGestureDetector.onTouchEvent(e))
                 return true;
 
             float x = e.getX();
-            float y = e.getY();
 
             switch (e.getAction()) {
 
                 case MotionEvent.ACTION_DOWN:
-                    updateValue(x, y);
-                    invalidate();
+                    mReportedValue = Float.NaN;
+                    applyDrag(x, e.getEventTime());
+                    break;
                 case MotionEvent.ACTION_MOVE:
-                    updateValue(x, y);
-                    invalidate();
-                    if (mSelectionListener != null)
-                        mSelectionListener.onSelectionUpdate(mValue, mMaxVal, mMinVal, this);
+                    if (mTouchCoalescingEnabled) {
+
+                        // all samples of the event (including the historical
+                        // ones) are superseded by the latest position
+                        mPendingTouchX = x;
+
+                        if (!mTouchUpdatePending) {
+                            mTouchUpdatePending = true;
+                            mPendingTouchTime = e.getEventTime();
+                            ViewCompat.postOnAnimation(this, mTouchUpdate);
+                        }
+                    } else {
+                        applyDrag(x, e.getEventTime());
+                    }
                     break;
                 case MotionEvent.ACTION_UP:
-                    updateValue(x, y);
-                    invalidate();
-                    if (mSelectionListener != null)
+                    cancelTouchUpdate();
+                    updateValue(x);
+                    invalidateValue();
+                    if (mSelectionListener != null) {
+                        recordTouchLatency(e.getEventTime());
                         mSelectionListener.onValueSelected(mValue, mMaxVal, mMinVal, this);
+                    }
+                    break;
+                case MotionEvent.ACTION_CANCEL:
+                    cancelTouchUpdate();
                     break;
             }
 
@@ -624,86 +1482,62 @@ public class ValueBar extends View implements AnimatorUpdateListener {
     }
 
     /**
-     * Updates the value on the ValueBar depending on the touch position.
+     * Updates the value for the given touch position of a drag and notifies
+     * the listener if the value changed.
      * 
      * @param x
-     * @param y
+     * @param eventTime the time of the touch event (uptime in milliseconds)
      */
-    private void updateValue(float x, float y) {
+    private void applyDrag(float x, long eventTime) {
 
-        float newVal = 0f;
+        updateValue(x);
 
-        if (x <= 0)
-            newVal = mMinVal;
-        else if (x > getWidth())
-            newVal = mMaxVal;
-        else {
-            float factor = x / getWidth();
-
-            newVal = (mMaxVal - mMinVal) * factor + mMinVal;
-        }
-
-        if (mInterval > 0f) {
-
-            float remainder = newVal % mInterval;
+        if (mValue == mReportedValue)
+            return;
 
-            // check if the new value is closer to the next, or the previous
-            if (remainder <= mInterval / 2f) {
+        invalidateValue();
+        mReportedValue = mValue;
 
-                newVal = newVal - remainder;
-            } else {
-                newVal = newVal - remainder + mInterval;
-            }
+        if (mSelectionListener != null) {
+            recordTouchLatency(eventTime);
+            mSelectionListener.onSelectionUpdate(mValue, mMaxVal, mMinVal, this);
         }
-
-        mValue = newVal;
     }
 
     /**
-     * Default BarColorFormatter class that supports a single color.
+     * Records the time since the given touch event in the metrics (if
+     * enabled).
      * 
-     * @author Philipp Jahoda
+     * @param eventTime the time of the touch event (uptime in milliseconds)
      */
-    private class DefaultColorFormatter implements BarColorFormatter {
+    private void recordTouchLatency(long eventTime) {
 
-        private int mColor;
+        if (mMetrics != null)
+            mMetrics.onTouchCallback((SystemClock.uptimeMillis() - eventTime) * 1000000L);
+    }
 
-        public DefaultColorFormatter(int color) {
-            mColor = color;
-        }
+    /**
+     * Drops the drag update scheduled for the next frame (if any).
+     */
+    private void cancelTouchUpdate() {
 
-        @Override
-        public int getColor(float value, float maxVal, float minVal) {
-            return mColor;
+        if (mTouchUpdatePending) {
+            removeCallbacks(mTouchUpdate);
+            mTouchUpdatePending = false;
         }
     }
 
     /**
-     * Default ValueTextFormatter that simply returns the value as a string.
+     * Updates the value on the ValueBar depending on the touch position.
      * 
-     * @author Philipp Jahoda
+     * @param x
      */
-    private class DefaultValueTextFormatter implements ValueTextFormatter {
-
-        private DecimalFormat mFormat;
-
-        public DefaultValueTextFormatter() {
-            mFormat = new DecimalFormat("###,###,##0.00");
-        }
-
-        @Override
-        public String getValueText(float value, float maxVal, float minVal) {
-            return mFormat.format(value);
-        }
-
-        @Override
-        public String getMinVal(float minVal) {
-            return mFormat.format(minVal);
-        }
-
-        @Override
-        public String getMaxVal(float maxVal) {
-            return mFormat.format(maxVal);
+    private void updateValue(float x) {
+        if (mScaleMapper.isLinear()) {
+            mValue = mSteps.getValueForPosition(x, getWidth());
+        } else {
+            mScaleMapper.prepare(mMinVal, mMaxVal, getWidth());
+            mValue = mSteps.snapValue(mScaleMapper.getValue(x));
         }
     }
 }
@@ -0,0 +1,287 @@
+
+package com.philjay.valuebar;
+
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.animation.ValueAnimator.AnimatorUpdateListener;
+import android.os.Build;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * Animates any number of ValueBars from a single frame callback instead of
+ * one animator per bar. All bars share the same duration and interpolator,
+ * the start of each bar can be delayed (e.g. to stagger the bars). The values
+ * of all bars are computed in one loop over primitive arrays on every frame,
+ * only bars whose value changed are invalidated.
+ * 
+ * <pre>
+ * ValueBarAnimationCoordinator c = new ValueBarAnimationCoordinator(1500);
+ * c.setStagger(50);
+ * for (ValueBar bar : bars)
+ *     c.add(bar, 800f);
+ * c.start();
+ * </pre>
+ * 
+ * If an animation is started on a bar directly (e.g. via animateUp(...)), the
+ * coordinator stops driving that bar.
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueBarAnimationCoordinator implements AnimatorUpdateListener {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** the animated bars */
+    private ValueBar[] mBars = new ValueBar[INITIAL_CAPACITY];
+
+    /** the value each bar starts at */
+    private float[] mFrom = new float[INITIAL_CAPACITY];
+
+    /** the value each bar ends at */
+    private float[] mTo = new float[INITIAL_CAPACITY];
+
+    /** the delay of each bar in milliseconds */
+    private long[] mDelays = new long[INITIAL_CAPACITY];
+
+    /** the animation generation of each bar at the start of the animation */
+    private int[] mGenerations = new int[INITIAL_CAPACITY];
+
+    /** the number of bars */
+    private int mCount = 0;
+
+    /** the duration of the animation of a single bar */
+    private long mDuration;
+
+    /** the additional delay of each added bar relative to the previous one */
+    private long mStagger = 0;
+
+    /** the interpolator shared by all bars */
+    private TimeInterpolator mInterpolator;
+
+    /** the animator serving as frame clock for all bars */
+    private ValueAnimator mClock;
+
+    /** the total duration of the animation including all delays */
+    private long mTotalDuration;
+
+    /**
+     * Creates a coordinator that animates all bars with the given duration and
+     * an AccelerateDecelerateInterpolator.
+     * 
+     * @param durationMillis
+     */
+    public ValueBarAnimationCoordinator(long durationMillis) {
+        this(durationMillis, new AccelerateDecelerateInterpolator());
+    }
+
+    /**
+     * Creates a coordinator that animates all bars with the given duration and
+     * interpolator.
+     * 
+     * @param durationMillis
+     * @param interpolator
+     */
+    public ValueBarAnimationCoordinator(long durationMillis, TimeInterpolator interpolator) {
+        mDuration = durationMillis;
+        mInterpolator = interpolator;
+    }
+
+    /**
+     * Sets the delay between the starts of two consecutively added bars.
+     * Applies to bars added after this call. Default: 0
+     * 
+     * @param delayMillis
+     */
+    public void setStagger(long delayMillis) {
+        mStagger = delayMillis;
+    }
+
+    /**
+     * Adds a bar that is animated from its current value to the given value.
+     * 
+     * @param bar
+     * @param to
+     */
+    public void add(ValueBar bar, float to) {
+        add(bar, bar.getValue(), to, mCount * mStagger);
+    }
+
+    /**
+     * Adds a bar that is animated from a specific value to a specific value.
+     * 
+     * @param bar
+     * @param from
+     * @param to
+     */
+    public void add(ValueBar bar, float from, float to) {
+        add(bar, from, to, mCount * mStagger);
+    }
+
+    /**
+     * Adds a bar that is animated from a specific value to a specific value,
+     * starting after the given delay. The values are limited to the minimum
+     * and maximum of the bar.
+     * 
+     * @param bar
+     * @param from
+     * @param to
+     * @param delayMillis
+     */
+    public void add(ValueBar bar, float from, float to, long delayMillis) {
+
+        if (mCount == mBars.length)
+            grow();
+
+        mBars[mCount] = bar;
+        mFrom[mCount] = clamp(from, bar.getMin(), bar.getMax());
+        mTo[mCount] = clamp(to, bar.getMin(), bar.getMax());
+        mDelays[mCount] = delayMillis;
+        mCount++;
+    }
+
+    /**
+     * Removes all bars. Cancels the animation if it is running.
+     */
+    public void clear() {
+
+        cancel();
+
+        for (int i = 0; i < mCount; i++)
+            mBars[i] = null;
+
+        mCount = 0;
+    }
+
+    /**
+     * Returns the number of bars added to the coordinator.
+     * 
+     * @return
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Starts animating all added bars. Animations running on the bars
+     * themselves are cancelled, a running animation of the coordinator is
+     * restarted.
+     */
+    public void start() {
+
+        if (mClock == null) {
+            mClock = ValueAnimator.ofFloat(0f, 1f);
+            mClock.setInterpolator(new LinearInterpolator());
+            mClock.addUpdateListener(this);
+        } else {
+            mClock.cancel();
+        }
+
+        mTotalDuration = 0;
+
+        for (int i = 0; i < mCount; i++) {
+
+            ValueBar bar = mBars[i];
+            bar.cancelAnimation();
+            bar.setAnimatedValue(mFrom[i]);
+
+            mGenerations[i] = bar.getAnimationGeneration();
+            mTotalDuration = Math.max(mTotalDuration, mDelays[i] + mDuration);
+        }
+
+        mClock.setDuration(mTotalDuration);
+        mClock.start();
+    }
+
+    /**
+     * Cancels the animation, all bars keep the value they currently display.
+     */
+    public void cancel() {
+
+        if (mClock != null)
+            mClock.cancel();
+    }
+
+    /**
+     * Returns true if the coordinator is currently animating.
+     * 
+     * @return
+     */
+    public boolean isRunning() {
+        return mClock != null && mClock.isRunning();
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator va) {
+
+        long time;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB_MR1)
+            time = (long) (va.getAnimatedFraction() * mTotalDuration);
+        else
+            time = Math.min(va.getCurrentPlayTime(), mTotalDuration);
+
+        float duration = mDuration;
+
+        for (int i = 0; i < mCount; i++) {
+
+            ValueBar bar = mBars[i];
+
+            // the bar has been animated or cancelled elsewhere
+            if (bar.getAnimationGeneration() != mGenerations[i])
+                continue;
+
+            long elapsed = time - mDelays[i];
+            float fraction;
+
+            if (elapsed <= 0)
+                fraction = 0f;
+            else if (elapsed >= duration)
+                fraction = 1f;
+            else
+                fraction = elapsed / duration;
+
+            float value = mFrom[i] + (mTo[i] - mFrom[i]) * mInterpolator.getInterpolation(fraction);
+
+            if (value != bar.getValue())
+                bar.setAnimatedValue(value);
+        }
+    }
+
+    /**
+     * Doubles the capacity of all arrays.
+     */
+    private void grow() {
+
+        int capacity = mBars.length * 2;
+
+        ValueBar[] bars = new ValueBar[capacity];
+        System.arraycopy(mBars, 0, bars, 0, mCount);
+        mBars = bars;
+
+        float[] from = new float[capacity];
+        System.arraycopy(mFrom, 0, from, 0, mCount);
+        mFrom = from;
+
+        float[] to = new float[capacity];
+        System.arraycopy(mTo, 0, to, 0, mCount);
+        mTo = to;
+
+        long[] delays = new long[capacity];
+        System.arraycopy(mDelays, 0, delays, 0, mCount);
+        mDelays = delays;
+
+        int[] generations = new int[capacity];
+        System.arraycopy(mGenerations, 0, generations, 0, mCount);
+        mGenerations = generations;
+    }
+
+    private static float clamp(float value, float min, float max) {
+
+        if (value < min)
+            return min;
+        if (value > max)
+            return max;
+        return value;
+    }
+}
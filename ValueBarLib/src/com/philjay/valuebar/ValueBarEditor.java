@@ -0,0 +1,355 @@
+
+package com.philjay.valuebar;
+
+import android.graphics.Typeface;
+
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.scale.ScaleMapper;
+
+/**
+ * Collects changes of a ValueBar and applies them in one pass on commit():
+ * Texts are formatted again at most once, the bar is invalidated once and the
+ * listener is notified at most once. Obtained via ValueBar.edit(), each
+ * ValueBar reuses its editor, so editing does not allocate. Must be used on
+ * the UI thread.
+ * 
+ * <pre>
+ * bar.edit()
+ *         .setMinMax(0f, 1000f)
+ *         .setValue(800f)
+ *         .setDrawBorder(false)
+ *         .setColorFormatter(new RedToGreenFormatter())
+ *         .commit();
+ * </pre>
+ * 
+ * @author Philipp Jahoda
+ */
+public final class ValueBarEditor {
+
+    static final int CHANGED_RANGE = 1;
+    static final int CHANGED_VALUE = 1 << 1;
+    static final int CHANGED_INTERVAL = 1 << 2;
+    static final int CHANGED_STEPS = 1 << 3;
+    static final int CHANGED_COLOR = 1 << 4;
+    static final int CHANGED_COLOR_FORMATTER = 1 << 5;
+    static final int CHANGED_VALUE_TEXT_FORMATTER = 1 << 6;
+    static final int CHANGED_DRAW_BORDER = 1 << 7;
+    static final int CHANGED_BORDER_WIDTH = 1 << 8;
+    static final int CHANGED_BORDER_COLOR = 1 << 9;
+    static final int CHANGED_DRAW_VALUE_TEXT = 1 << 10;
+    static final int CHANGED_DRAW_MIN_MAX_TEXT = 1 << 11;
+    static final int CHANGED_VALUE_TEXT_SIZE = 1 << 12;
+    static final int CHANGED_VALUE_TEXT_TYPEFACE = 1 << 13;
+    static final int CHANGED_MIN_MAX_TEXT_SIZE = 1 << 14;
+    static final int CHANGED_MIN_MAX_TEXT_TYPEFACE = 1 << 15;
+    static final int CHANGED_OVERLAY_COLOR = 1 << 16;
+    static final int CHANGED_TOUCH_ENABLED = 1 << 17;
+    static final int CHANGED_GRADIENT_FILL = 1 << 18;
+    static final int CHANGED_SCALE_MAPPER = 1 << 19;
+
+    private final ValueBar mBar;
+
+    /** the properties set since the editor was obtained */
+    int mChanges;
+
+    float mMinVal;
+    float mMaxVal;
+    float mValue;
+    float mInterval;
+    float[] mSteps;
+
+    int mColor;
+    BarColorFormatter mColorFormatter;
+    int[] mGradientFill;
+    ValueTextFormatter mValueTextFormatter;
+    ScaleMapper mScaleMapper;
+
+    boolean mDrawBorder;
+    float mBorderWidth;
+    int mBorderColor;
+
+    boolean mDrawValueText;
+    boolean mDrawMinMaxText;
+
+    float mValueTextSize;
+    Typeface mValueTextTypeface;
+    float mMinMaxTextSize;
+    Typeface mMinMaxTextTypeface;
+
+    int mOverlayColor;
+
+    boolean mTouchEnabled;
+
+    ValueBarEditor(ValueBar bar) {
+        mBar = bar;
+    }
+
+    /**
+     * Discards all changes that have not been committed.
+     * 
+     * @return
+     */
+    ValueBarEditor reset() {
+
+        mChanges = 0;
+
+        // do not keep the objects of the previous edit alive
+        mSteps = null;
+        mColorFormatter = null;
+        mGradientFill = null;
+        mValueTextFormatter = null;
+        mScaleMapper = null;
+        mValueTextTypeface = null;
+        mMinMaxTextTypeface = null;
+
+        return this;
+    }
+
+    /**
+     * Sets all properties the given state describes, properties the state
+     * leaves unset (null) are set to their defaults.
+     * 
+     * @param state
+     * @return
+     */
+    ValueBarEditor set(ValueBarState state) {
+
+        setMinMax(state.getMin(), state.getMax());
+        setValue(state.getValue());
+        setInterval(state.getInterval());
+        setSteps(state.getSteps());
+
+        if (state.getColorFormatter() != null)
+            setColorFormatter(state.getColorFormatter());
+        else
+            setColor(state.getColor());
+
+        setGradientFill(state.getGradientFill());
+        setValueTextFormatter(state.getValueTextFormatter());
+        setScaleMapper(state.getScaleMapper());
+        setDrawBorder(state.isDrawBorderEnabled());
+        setDrawValueText(state.isDrawValueTextEnabled());
+        setDrawMinMaxText(state.isDrawMinMaxTextEnabled());
+        setTouchEnabled(state.isTouchEnabled());
+
+        return this;
+    }
+
+    /**
+     * Returns true if the given property has been set.
+     * 
+     * @param change one of the CHANGED_... flags
+     * @return
+     */
+    boolean isChanged(int change) {
+        return (mChanges & change) != 0;
+    }
+
+    /**
+     * Sets the minimum and maximum value the bar can display.
+     * 
+     * @param min
+     * @param max
+     * @return
+     */
+    public ValueBarEditor setMinMax(float min, float max) {
+        mMinVal = min;
+        mMaxVal = max;
+        mChanges |= CHANGED_RANGE;
+        return this;
+    }
+
+    /**
+     * Sets the value the bar displays. A running animation of the bar is
+     * cancelled on commit.
+     * 
+     * @param value
+     * @return
+     */
+    public ValueBarEditor setValue(float value) {
+        mValue = value;
+        mChanges |= CHANGED_VALUE;
+        return this;
+    }
+
+    /**
+     * Sets the interval in which values can be chosen, see
+     * ValueBar.setInterval(...).
+     * 
+     * @param interval
+     * @return
+     */
+    public ValueBarEditor setInterval(float interval) {
+        mInterval = interval;
+        mChanges |= CHANGED_INTERVAL;
+        return this;
+    }
+
+    /**
+     * Sets a table of values that can be chosen, see ValueBar.setSteps(...).
+     * 
+     * @param steps
+     * @return
+     */
+    public ValueBarEditor setSteps(float[] steps) {
+        mSteps = steps;
+        mChanges |= CHANGED_STEPS;
+        return this;
+    }
+
+    /**
+     * Sets the color of the bar, replaces the color formatter.
+     * 
+     * @param color
+     * @return
+     */
+    public ValueBarEditor setColor(int color) {
+        mColor = color;
+        mChanges = (mChanges | CHANGED_COLOR) & ~CHANGED_COLOR_FORMATTER;
+        return this;
+    }
+
+    /**
+     * Sets the formatter for the color of the bar, replaces the color. Null
+     * resets to the default color.
+     * 
+     * @param formatter
+     * @return
+     */
+    public ValueBarEditor setColorFormatter(BarColorFormatter formatter) {
+        mColorFormatter = formatter;
+        mChanges = (mChanges | CHANGED_COLOR_FORMATTER) & ~CHANGED_COLOR;
+        return this;
+    }
+
+    /**
+     * Fills the bar with a gradient, see ValueBar.setGradientFill(...).
+     * 
+     * @param colors at least two colors, null to use the color formatter
+     * @return
+     */
+    public ValueBarEditor setGradientFill(int[] colors) {
+        mGradientFill = colors;
+        mChanges |= CHANGED_GRADIENT_FILL;
+        return this;
+    }
+
+    /**
+     * Sets the ScaleMapper, see ValueBar.setScaleMapper(...).
+     * 
+     * @param mapper
+     * @return
+     */
+    public ValueBarEditor setScaleMapper(ScaleMapper mapper) {
+        mScaleMapper = mapper;
+        mChanges |= CHANGED_SCALE_MAPPER;
+        return this;
+    }
+
+    /**
+     * Sets the formatter of the value-text, null resets to the default
+     * formatter.
+     * 
+     * @param formatter
+     * @return
+     */
+    public ValueBarEditor setValueTextFormatter(ValueTextFormatter formatter) {
+        mValueTextFormatter = formatter;
+        mChanges |= CHANGED_VALUE_TEXT_FORMATTER;
+        return this;
+    }
+
+    public ValueBarEditor setDrawBorder(boolean enabled) {
+        mDrawBorder = enabled;
+        mChanges |= CHANGED_DRAW_BORDER;
+        return this;
+    }
+
+    public ValueBarEditor setBorderWidth(float width) {
+        mBorderWidth = width;
+        mChanges |= CHANGED_BORDER_WIDTH;
+        return this;
+    }
+
+    public ValueBarEditor setBorderColor(int color) {
+        mBorderColor = color;
+        mChanges |= CHANGED_BORDER_COLOR;
+        return this;
+    }
+
+    public ValueBarEditor setDrawValueText(boolean enabled) {
+        mDrawValueText = enabled;
+        mChanges |= CHANGED_DRAW_VALUE_TEXT;
+        return this;
+    }
+
+    public ValueBarEditor setDrawMinMaxText(boolean enabled) {
+        mDrawMinMaxText = enabled;
+        mChanges |= CHANGED_DRAW_MIN_MAX_TEXT;
+        return this;
+    }
+
+    /**
+     * Sets the size of the value-text in density pixels.
+     * 
+     * @param size
+     * @return
+     */
+    public ValueBarEditor setValueTextSize(float size) {
+        mValueTextSize = size;
+        mChanges |= CHANGED_VALUE_TEXT_SIZE;
+        return this;
+    }
+
+    public ValueBarEditor setValueTextTypeface(Typeface tf) {
+        mValueTextTypeface = tf;
+        mChanges |= CHANGED_VALUE_TEXT_TYPEFACE;
+        return this;
+    }
+
+    /**
+     * Sets the size of the min-max text in density pixels.
+     * 
+     * @param size
+     * @return
+     */
+    public ValueBarEditor setMinMaxTextSize(float size) {
+        mMinMaxTextSize = size;
+        mChanges |= CHANGED_MIN_MAX_TEXT_SIZE;
+        return this;
+    }
+
+    public ValueBarEditor setMinMaxTextTypeface(Typeface tf) {
+        mMinMaxTextTypeface = tf;
+        mChanges |= CHANGED_MIN_MAX_TEXT_TYPEFACE;
+        return this;
+    }
+
+    /**
+     * Sets the color of the overlay below the value-text, its alpha is kept.
+     * 
+     * @param color
+     * @return
+     */
+    public ValueBarEditor setOverlayColor(int color) {
+        mOverlayColor = color;
+        mChanges |= CHANGED_OVERLAY_COLOR;
+        return this;
+    }
+
+    public ValueBarEditor setTouchEnabled(boolean enabled) {
+        mTouchEnabled = enabled;
+        mChanges |= CHANGED_TOUCH_ENABLED;
+        return this;
+    }
+
+    /**
+     * Applies all changes to the ValueBar at once and invalidates it. If the
+     * value changed, the listener of the bar is notified once via
+     * onSelectionUpdate(...).
+     */
+    public void commit() {
+        mBar.apply(this, true);
+        reset();
+    }
+}
@@ -0,0 +1,136 @@
+
+package com.philjay.valuebar;
+
+import android.support.v4.view.ViewCompat;
+
+import com.philjay.valuebar.feed.ValueFeed;
+import com.philjay.valuebar.feed.ValueFeedSubscriber;
+import com.philjay.valuebar.feed.ValueFeedSubscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Binds a ValueFeed to a ValueBar. Values may arrive on any thread at any
+ * rate, the binder only requests the next value after the previous one has
+ * been displayed, keeps only the latest value if the feed delivers more than
+ * requested and updates the bar at most once per display frame.
+ * 
+ * <pre>
+ * ValueBarFeedBinder binder = new ValueBarFeedBinder(bar);
+ * feed.subscribe(binder);
+ * ...
+ * binder.unbind();
+ * </pre>
+ * 
+ * A java.util.concurrent.Flow.Publisher (API level 30) can be connected by
+ * forwarding the calls of a Flow.Subscriber to the binder.
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueBarFeedBinder implements ValueFeedSubscriber {
+
+    private ValueBar mBar;
+
+    private volatile ValueFeedSubscription mSubscription;
+
+    /** the latest value delivered by the feed */
+    private volatile float mLatest;
+
+    /** true if an update of the bar is scheduled for the next frame */
+    private final AtomicBoolean mFramePending = new AtomicBoolean(false);
+
+    /** true after the feed completed, failed or the binder was unbound */
+    private volatile boolean mDone = false;
+
+    /** applies the latest value to the bar once per frame */
+    private final Runnable mFrame = new Runnable() {
+
+        @Override
+        public void run() {
+
+            mFramePending.set(false);
+
+            if (mBar.isAnimating())
+                mBar.cancelAnimation();
+
+            mBar.setFeedValue(mLatest);
+
+            // the value has been consumed, ask for the next one
+            ValueFeedSubscription s = mSubscription;
+
+            if (s != null && !mDone)
+                s.request(1);
+        }
+    };
+
+    /**
+     * @param bar the bar that displays the values of the feed
+     */
+    public ValueBarFeedBinder(ValueBar bar) {
+        mBar = bar;
+    }
+
+    /**
+     * Convenience method for subscribing the binder to the given feed.
+     * 
+     * @param feed
+     */
+    public void bind(ValueFeed feed) {
+        feed.subscribe(this);
+    }
+
+    /**
+     * Cancels the subscription, the bar keeps the value it displays. Must be
+     * called on the UI thread.
+     */
+    public void unbind() {
+
+        mDone = true;
+
+        ValueFeedSubscription s = mSubscription;
+        mSubscription = null;
+
+        if (s != null)
+            s.cancel();
+
+        mBar.removeCallbacks(mFrame);
+        mFramePending.set(false);
+    }
+
+    @Override
+    public void onSubscribe(ValueFeedSubscription subscription) {
+
+        if (mSubscription != null || mDone) {
+            subscription.cancel();
+            return;
+        }
+
+        mSubscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(float value) {
+
+        if (mDone)
+            return;
+
+        mLatest = value;
+
+        // values arriving before the frame replace each other
+        if (mFramePending.compareAndSet(false, true))
+            ViewCompat.postOnAnimation(mBar, mFrame);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        mDone = true;
+        mSubscription = null;
+    }
+
+    @Override
+    public void onComplete() {
+        mDone = true;
+        mSubscription = null;
+    }
+}
@@ -0,0 +1,802 @@
+
+package com.philjay.valuebar;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.philjay.valuebar.colors.BarColorFormatter;
+import com.philjay.valuebar.scale.LinearScaleMapper;
+import com.philjay.valuebar.scale.ScaleMapper;
+
+/**
+ * ValueBarGroup is a custom View that displays any number of bars below each
+ * other in a single View. The bars are drawn the same way as a ValueBar, but
+ * their values are provided as primitive arrays instead of one View per bar,
+ * which makes the group suitable for dashboards with hundreds or thousands of
+ * bars. Only the bars inside the visible area are drawn.
+ * 
+ * <pre>
+ * ValueBarGroup group = (ValueBarGroup) findViewById(R.id.group);
+ * group.setData(values, mins, maxs);
+ * // after changing values[i]
+ * group.notifyBarChanged(i);
+ * </pre>
+ * 
+ * The arrays are not copied, changes to them are displayed after calling
+ * notifyDataChanged() or notifyBarChanged(...).
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueBarGroup extends View {
+
+    /**
+     * the minimum number of different texts of which the measurements are
+     * cached, the caches grow with the number of bars
+     */
+    private static final int METRICS_CAPACITY = 64;
+
+    /** the values the bars display */
+    private float[] mValues;
+
+    /** the minimum value of each bar */
+    private float[] mMinVals;
+
+    /** the maximum value of each bar */
+    private float[] mMaxVals;
+
+    /** the number of bars */
+    private int mCount = 0;
+
+    /** the interval in which values can be chosen on all bars */
+    private float mInterval = 1f;
+
+    /** the interval as the decimal number it was specified as */
+    private double mIntervalDecimal = 1.0;
+
+    /** the height of a single bar in pixels */
+    private float mBarHeight;
+
+    /** the space between two bars in pixels */
+    private float mBarSpacing;
+
+    /** draws the bars and their labels */
+    private BarRenderer mRenderer;
+
+    /** maps values to pixel positions and back, shared by all bars */
+    private ScaleMapper mScaleMapper;
+
+    /** the formatted minimum label of each bar */
+    private String[] mMinTexts;
+
+    /** the formatted maximum label of each bar */
+    private String[] mMaxTexts;
+
+    /** the minimum each label in mMinTexts was formatted for */
+    private float[] mMinTextVals;
+
+    /** the maximum each label in mMaxTexts was formatted for */
+    private float[] mMaxTextVals;
+
+    private RectF mBar;
+
+    private Rect mClipBounds;
+
+    private boolean mTouchEnabled = true;
+
+    /** the index of the bar that is currently touched, -1 if none */
+    private int mTouchedIndex = -1;
+
+    /** listener called when a value has been selected on touch */
+    private ValueBarGroupSelectionListener mSelectionListener;
+
+    public ValueBarGroup(Context context) {
+        super(context);
+        init(null, 0);
+    }
+
+    public ValueBarGroup(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs, 0);
+    }
+
+    public ValueBarGroup(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(attrs, defStyleAttr);
+    }
+
+    /**
+     * Do all preparations.
+     * 
+     * @param attrs the attributes from xml, null if created in code
+     * @param defStyleAttr
+     */
+    private void init(AttributeSet attrs, int defStyleAttr) {
+
+        mRenderer = new BarRenderer(METRICS_CAPACITY, getResources().getDisplayMetrics().density);
+        mScaleMapper = new LinearScaleMapper();
+        mBar = new RectF();
+        mClipBounds = new Rect();
+
+        mBarHeight = mRenderer.convertDpToPixel(40f);
+        mBarSpacing = mRenderer.convertDpToPixel(8f);
+
+        if (attrs != null) {
+
+            Context context = getContext();
+
+            TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.ValueBarStyle,
+                    defStyleAttr, 0);
+            mRenderer.applyStyle(a);
+            a.recycle();
+
+            a = context.obtainStyledAttributes(attrs, R.styleable.ValueBarGroup, defStyleAttr, 0);
+            mBarHeight = a.getDimension(R.styleable.ValueBarGroup_vb_barHeight, mBarHeight);
+            mBarSpacing = a.getDimension(R.styleable.ValueBarGroup_vb_barSpacing, mBarSpacing);
+            a.recycle();
+        }
+
+        setData(new float[0], new float[0], new float[0]);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+
+        float density = getResources().getDisplayMetrics().density;
+
+        if (density == mRenderer.getDensity())
+            return;
+
+        // e.g. moved to a display with a different density
+        float scale = density / mRenderer.getDensity();
+        mRenderer.setDensity(density);
+        mBarHeight *= scale;
+        mBarSpacing *= scale;
+
+        requestLayout();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        int height = (int) Math.ceil(getContentHeight()) + getPaddingTop() + getPaddingBottom();
+
+        setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mCount == 0)
+            return;
+
+        int top = getPaddingTop();
+        float width = getWidth() - getPaddingLeft() - getPaddingRight();
+
+        if (!canvas.getClipBounds(mClipBounds))
+            return;
+
+        // only draw the bars intersecting the clip
+        int first = Math.max(0, getIndexForPosition(mClipBounds.top - top, false));
+        int last = Math.min(mCount - 1, getIndexForPosition(mClipBounds.bottom - top, false));
+
+        boolean drawMinMax = mRenderer.isDrawMinMaxTextEnabled();
+
+        for (int i = first; i <= last; i++) {
+
+            float value = mValues[i];
+            float min = mMinVals[i];
+            float max = mMaxVals[i];
+
+            canvas.save();
+            canvas.translate(getPaddingLeft(), top + getBarTop(i));
+
+            float length;
+
+            // an empty range would divide by zero
+            if (max <= min) {
+                length = value >= max ? width : 0f;
+            } else {
+                mScaleMapper.prepare(min, max, width);
+                length = mScaleMapper.getPosition(value);
+            }
+
+            mBar.set(0, 0, length, mBarHeight);
+
+            if (drawMinMax)
+                mRenderer.drawMinMaxText(canvas, getMinText(i), getMaxText(i), width,
+                        mBarHeight, mRenderer.isMinLabelVisible(value, min));
+
+            mRenderer.drawBar(canvas, width, mBar, value, min, max);
+            mRenderer.drawBorder(canvas, width, mBarHeight);
+            mRenderer.drawValueText(canvas, mBar, mBarHeight, value, min, max);
+
+            canvas.restore();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mRenderer.recycle();
+    }
+
+    /**
+     * Returns the formatted minimum label of the bar at the given index.
+     * 
+     * @param index
+     * @return
+     */
+    private String getMinText(int index) {
+
+        if (mMinTexts[index] == null || mMinTextVals[index] != mMinVals[index]) {
+            mMinTexts[index] = mRenderer.getValueTextFormatter().getMinVal(mMinVals[index]);
+            mMinTextVals[index] = mMinVals[index];
+        }
+
+        return mMinTexts[index];
+    }
+
+    /**
+     * Returns the formatted maximum label of the bar at the given index.
+     * 
+     * @param index
+     * @return
+     */
+    private String getMaxText(int index) {
+
+        if (mMaxTexts[index] == null || mMaxTextVals[index] != mMaxVals[index]) {
+            mMaxTexts[index] = mRenderer.getValueTextFormatter().getMaxVal(mMaxVals[index]);
+            mMaxTextVals[index] = mMaxVals[index];
+        }
+
+        return mMaxTexts[index];
+    }
+
+    /**
+     * Drops all formatted labels so that they are formatted again upon the
+     * next draw.
+     */
+    private void invalidateTexts() {
+
+        for (int i = 0; i < mCount; i++) {
+            mMinTexts[i] = null;
+            mMaxTexts[i] = null;
+        }
+    }
+
+    /**
+     * Returns the height of all bars including the spacing between them.
+     * 
+     * @return
+     */
+    private float getContentHeight() {
+
+        if (mCount == 0)
+            return 0f;
+
+        return mCount * mBarHeight + (mCount - 1) * mBarSpacing;
+    }
+
+    /**
+     * Returns the top of the bar at the given index relative to the top
+     * padding.
+     * 
+     * @param index
+     * @return
+     */
+    private float getBarTop(int index) {
+        return index * (mBarHeight + mBarSpacing);
+    }
+
+    /**
+     * Returns the index of the bar at the given vertical position relative to
+     * the top padding.
+     * 
+     * @param y
+     * @param exact true to return -1 if the position is in the space between
+     *            two bars or outside of all bars
+     * @return
+     */
+    private int getIndexForPosition(float y, boolean exact) {
+
+        float stride = mBarHeight + mBarSpacing;
+        int index = (int) Math.floor(y / stride);
+
+        if (exact && (index < 0 || index >= mCount || y - index * stride > mBarHeight))
+            return -1;
+
+        return index;
+    }
+
+    /**
+     * Sets the values, minimums and maximums of all bars. The arrays must have
+     * the same length and are not copied, call notifyDataChanged() or
+     * notifyBarChanged(...) after modifying them.
+     * 
+     * @param values
+     * @param mins
+     * @param maxs
+     */
+    public void setData(float[] values, float[] mins, float[] maxs) {
+
+        if (values.length != mins.length || values.length != maxs.length)
+            throw new IllegalArgumentException(
+                    "The values, mins and maxs arrays need to have the same length.");
+
+        mValues = values;
+        mMinVals = mins;
+        mMaxVals = maxs;
+
+        if (mMinTexts == null || mMinTexts.length < values.length) {
+            mMinTexts = new String[values.length];
+            mMaxTexts = new String[values.length];
+            mMinTextVals = new float[values.length];
+            mMaxTextVals = new float[values.length];
+        }
+
+        // a frame measures the value-text and the minimum label of every bar
+        // in the value-text style, and both labels in the min-max style
+        mRenderer.ensureMetricsCapacity(2 * values.length);
+
+        boolean resized = mCount != values.length;
+
+        mCount = values.length;
+        mTouchedIndex = -1;
+        invalidateTexts();
+
+        if (resized)
+            requestLayout();
+
+        invalidate();
+    }
+
+    /**
+     * Returns the number of bars in the group.
+     * 
+     * @return
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Sets the value of the bar at the given index and redraws the bar.
+     * 
+     * @param index
+     * @param value
+     */
+    public void setValue(int index, float value) {
+        mValues[index] = value;
+        notifyBarChanged(index);
+    }
+
+    /**
+     * Returns the value of the bar at the given index.
+     * 
+     * @param index
+     * @return
+     */
+    public float getValue(int index) {
+        return mValues[index];
+    }
+
+    /**
+     * Sets the minimum and maximum value the bar at the given index can
+     * display.
+     * 
+     * @param index
+     * @param min
+     * @param max
+     */
+    public void setMinMax(int index, float min, float max) {
+        mMinVals[index] = min;
+        mMaxVals[index] = max;
+        notifyBarChanged(index);
+    }
+
+    /**
+     * Call this after modifying the arrays provided in setData(...) to redraw
+     * all bars.
+     */
+    public void notifyDataChanged() {
+        invalidate();
+    }
+
+    /**
+     * Call this after modifying a single bar in the arrays provided in
+     * setData(...) to redraw only this bar.
+     * 
+     * @param index
+     */
+    public void notifyBarChanged(int index) {
+
+        int top = getPaddingTop() + (int) Math.floor(getBarTop(index));
+
+        invalidate(0, top, getWidth(), top + (int) Math.ceil(mBarHeight) + 1);
+    }
+
+    /**
+     * Sets the height of each bar in density pixels. Default: 40dp
+     * 
+     * @param height
+     */
+    public void setBarHeight(float height) {
+        mBarHeight = mRenderer.convertDpToPixel(height);
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the space between two bars in density pixels. Default: 8dp
+     * 
+     * @param spacing
+     */
+    public void setBarSpacing(float spacing) {
+        mBarSpacing = mRenderer.convertDpToPixel(spacing);
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the interval in which the values can be chosen on all bars. If
+     * interval <= 0, there is no interval.
+     * 
+     * @param interval
+     */
+    public void setInterval(float interval) {
+        mInterval = interval;
+        mIntervalDecimal = StepModel.toDecimal(interval);
+    }
+
+    /**
+     * Returns the interval in which values can be chosen.
+     * 
+     * @return
+     */
+    public float getInterval() {
+        return mInterval;
+    }
+
+    /**
+     * Sets the ScaleMapper that maps values to pixel positions for all bars.
+     * The transform is only computed again for bars whose range differs from
+     * the previous bar. Provide null to reset to the default linear mapping.
+     * 
+     * @param mapper
+     */
+    public void setScaleMapper(ScaleMapper mapper) {
+
+        if (mapper == null)
+            mapper = new LinearScaleMapper();
+        mScaleMapper = mapper;
+
+        invalidate();
+    }
+
+    /**
+     * Set this to true to enable drawing the border around the bars, or false
+     * to disable it.
+     * 
+     * @param enabled
+     */
+    public void setDrawBorder(boolean enabled) {
+        mRenderer.setDrawBorder(enabled);
+        invalidate();
+    }
+
+    /**
+     * Sets the width of the border around the bars (if drawn).
+     * 
+     * @param width
+     */
+    public void setBorderWidth(float width) {
+        mRenderer.getBorderPaint().setStrokeWidth(width);
+        invalidate();
+    }
+
+    /**
+     * Sets the color of the border around the bars (if drawn).
+     * 
+     * @param color
+     */
+    public void setBorderColor(int color) {
+        mRenderer.getBorderPaint().setColor(color);
+        invalidate();
+    }
+
+    /**
+     * Sets a custom formatter that formats the value-text of all bars. Provide
+     * null to reset all changes and use the default formatter.
+     * 
+     * @param formatter
+     */
+    public void setValueTextFormatter(ValueTextFormatter formatter) {
+        mRenderer.setValueTextFormatter(formatter);
+        invalidateTexts();
+        invalidate();
+    }
+
+    /**
+     * Sets a custom BarColorFormatter for all bars. Provide null to reset all
+     * changes.
+     * 
+     * @param formatter
+     */
+    public void setColorFormatter(BarColorFormatter formatter) {
+        mRenderer.setColorFormatter(formatter);
+        invalidate();
+    }
+
+    /**
+     * Fills all bars with a gradient of the given colors that spans the whole
+     * width of a bar, see ValueBar.setGradientFill(...). Provide null to use
+     * the color formatter again.
+     * 
+     * @param colors at least two colors
+     */
+    public void setGradientFill(int[] colors) {
+        mRenderer.setGradientFill(colors);
+        invalidate();
+    }
+
+    /**
+     * Sets the color all bars should have.
+     * 
+     * @param color
+     */
+    public void setColor(int color) {
+        mRenderer.setColor(color);
+        invalidate();
+    }
+
+    /**
+     * Returns the paint object that is used for drawing the bars.
+     * 
+     * @return
+     */
+    public Paint getBarPaint() {
+        return mRenderer.getBarPaint();
+    }
+
+    /**
+     * Returns the Paint object used for drawing the value-text.
+     * 
+     * @return
+     */
+    public Paint getValueTextPaint() {
+        return mRenderer.getValueTextPaint();
+    }
+
+    /**
+     * Returns the Paint object used for drawing min an max text.
+     * 
+     * @return
+     */
+    public Paint getMinMaxTextPaint() {
+        return mRenderer.getMinMaxTextPaint();
+    }
+
+    /**
+     * Sets the size of the value-text in density pixels.
+     * 
+     * @param size
+     */
+    public void setValueTextSize(float size) {
+        mRenderer.getValueTextPaint().setTextSize(mRenderer.convertDpToPixel(size));
+        invalidate();
+    }
+
+    /**
+     * Sets the Typeface of the value-text.
+     * 
+     * @param tf
+     */
+    public void setValueTextTypeface(Typeface tf) {
+        mRenderer.getValueTextPaint().setTypeface(tf);
+        invalidate();
+    }
+
+    /**
+     * Sets the size of the min-max text in density pixels.
+     * 
+     * @param size
+     */
+    public void setMinMaxTextSize(float size) {
+        mRenderer.getMinMaxTextPaint().setTextSize(mRenderer.convertDpToPixel(size));
+        invalidate();
+    }
+
+    /**
+     * Sets the Typeface of the min-max text.
+     * 
+     * @param tf
+     */
+    public void setMinMaxTextTypeface(Typeface tf) {
+        mRenderer.getMinMaxTextPaint().setTypeface(tf);
+        invalidate();
+    }
+
+    /**
+     * Sets the color of the overlay that is placed below the value-text.
+     * 
+     * @param color
+     */
+    public void setOverlayColor(int color) {
+        mRenderer.setOverlayColor(color);
+        invalidate();
+    }
+
+    /**
+     * Set this to true to enable drawing the actual value of each bar onto
+     * the bar.
+     * 
+     * @param enabled
+     */
+    public void setDrawValueText(boolean enabled) {
+        mRenderer.setDrawValueText(enabled);
+        invalidate();
+    }
+
+    /**
+     * Returns true if drawing the value-text is enabled.
+     * 
+     * @return
+     */
+    public boolean isDrawValueTextEnabled() {
+        return mRenderer.isDrawValueTextEnabled();
+    }
+
+    /**
+     * Set this to true to enable drawing the minimum and maximum labels of
+     * each bar.
+     * 
+     * @param enabled
+     */
+    public void setDrawMinMaxText(boolean enabled) {
+        mRenderer.setDrawMinMaxText(enabled);
+        invalidate();
+    }
+
+    /**
+     * Returns true if drawing the minimum and maximum label is enabled.
+     * 
+     * @return
+     */
+    public boolean isDrawMinMaxTextEnabled() {
+        return mRenderer.isDrawMinMaxTextEnabled();
+    }
+
+    /**
+     * Set this to true to draw the value-texts from an atlas of pre-rendered,
+     * rotated glyphs. See ValueBar.setGlyphAtlasEnabled(...). Default: false
+     * 
+     * @param enabled
+     */
+    public void setGlyphAtlasEnabled(boolean enabled) {
+        mRenderer.setGlyphAtlasEnabled(enabled);
+        invalidate();
+    }
+
+    /**
+     * Returns true if the value-texts are drawn from an atlas of pre-rendered
+     * glyphs.
+     * 
+     * @return
+     */
+    public boolean isGlyphAtlasEnabled() {
+        return mRenderer.isGlyphAtlasEnabled();
+    }
+
+    /**
+     * Set this to true to enable touch gestures on the bars.
+     * 
+     * @param enabled
+     */
+    public void setTouchEnabled(boolean enabled) {
+        mTouchEnabled = enabled;
+    }
+
+    /**
+     * Sets a selectionlistener for callbacks when selecting values on one of
+     * the bars.
+     * 
+     * @param l
+     */
+    public void setValueBarGroupSelectionListener(ValueBarGroupSelectionListener l) {
+        mSelectionListener = l;
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent e) {
+
+        if (!mTouchEnabled)
+            return super.onTouchEvent(e);
+
+        switch (e.getAction()) {
+
+            case MotionEvent.ACTION_DOWN:
+                mTouchedIndex = getIndexForPosition(e.getY() - getPaddingTop(), true);
+
+                // touches between the bars are not consumed
+                if (mTouchedIndex < 0)
+                    return false;
+
+                updateValue(e.getX());
+                notifySelectionUpdate();
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (mTouchedIndex < 0)
+                    break;
+
+                updateValue(e.getX());
+                notifySelectionUpdate();
+                break;
+            case MotionEvent.ACTION_UP:
+                if (mTouchedIndex < 0)
+                    break;
+
+                updateValue(e.getX());
+
+                if (mSelectionListener != null)
+                    mSelectionListener.onValueSelected(mTouchedIndex,
+                            mValues[mTouchedIndex], mMaxVals[mTouchedIndex],
+                            mMinVals[mTouchedIndex], this);
+
+                mTouchedIndex = -1;
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                mTouchedIndex = -1;
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reports the value of the touched bar to the selection listener (if
+     * set).
+     */
+    private void notifySelectionUpdate() {
+
+        if (mSelectionListener != null)
+            mSelectionListener.onSelectionUpdate(mTouchedIndex, mValues[mTouchedIndex],
+                    mMaxVals[mTouchedIndex], mMinVals[mTouchedIndex], this);
+    }
+
+    /**
+     * Updates the value of the touched bar depending on the touch position.
+     * 
+     * @param x
+     */
+    private void updateValue(float x) {
+
+        int i = mTouchedIndex;
+        float width = getWidth() - getPaddingLeft() - getPaddingRight();
+
+        if (mScaleMapper.isLinear()) {
+            mValues[i] = StepModel.getValueForPosition(x - getPaddingLeft(), width,
+                    mMinVals[i], mMaxVals[i], mIntervalDecimal);
+        } else {
+            mScaleMapper.prepare(mMinVals[i], mMaxVals[i], width);
+            mValues[i] = StepModel.snap(mScaleMapper.getValue(x - getPaddingLeft()), mMinVals[i],
+                    mMaxVals[i], mIntervalDecimal);
+        }
+
+        notifyBarChanged(i);
+    }
+}
@@ -0,0 +1,35 @@
+
+package com.philjay.valuebar;
+
+/**
+ * Listener for callbacks when selecting values on one of the bars of a
+ * ValueBarGroup by touch gesture.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ValueBarGroupSelectionListener {
+
+    /**
+     * Called every time the user moves the finger on a bar of the group.
+     * 
+     * @param index the index of the touched bar
+     * @param val
+     * @param maxval
+     * @param minval
+     * @param group
+     */
+    public void onSelectionUpdate(int index, float val, float maxval, float minval,
+            ValueBarGroup group);
+
+    /**
+     * Called when the user releases his finger from a bar of the group.
+     * 
+     * @param index the index of the touched bar
+     * @param val
+     * @param maxval
+     * @param minval
+     * @param group
+     */
+    public void onValueSelected(int index, float val, float maxval, float minval,
+            ValueBarGroup group);
+}